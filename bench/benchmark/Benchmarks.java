@@ -0,0 +1,56 @@
+package benchmark;
+
+import java.awt.*;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+// Spuštění (ze složky projektu):
+//   gradle bench --args="-o results.json [-f 1] [-wi 3] [-i 5] [-t 200] [regex]"
+// nebo bez Gradle:
+//   javac -d out $(find src bench -name '*.java')
+//   java -cp out benchmark.Benchmarks -o results.json [-f 1] [-wi 3] [-i 5] [-t 200] [regex]
+// regex filtruje podle názvu benchmarku a parametrů, např. "line.*aa" nebo "seedfill"
+// -f je počet JVM na případ (0 = všechny případy v tomto JVM)
+
+public class Benchmarks {
+    private static final Dimension[] CANVASES = {new Dimension(800, 600), new Dimension(1920, 1080)};
+
+    public static void main(String[] args) throws IOException {
+        Harness harness = new Harness(Benchmarks.class);
+        String output = "bench-results.json";
+        int forkCase = -1;
+
+        for (int i = 0; i < args.length; i++) {
+            if (Harness.isForkArgument(args[i])) {
+                forkCase = Integer.parseInt(args[++i]);
+                continue;
+            }
+            switch (args[i]) {
+                case "-o" -> output = args[++i];
+                case "-f" -> harness.setForks(Integer.parseInt(args[++i]));
+                case "-wi" -> harness.setWarmupIterations(Integer.parseInt(args[++i]));
+                case "-i" -> harness.setMeasurementIterations(Integer.parseInt(args[++i]));
+                case "-t" -> harness.setIterationMillis(Long.parseLong(args[++i]));
+                default -> harness.setFilter(args[i]);
+            }
+        }
+
+        LineBenchmarks.register(harness, CANVASES);
+        FillBenchmarks.register(harness, CANVASES);
+        ClipBenchmarks.register(harness);
+
+        if (forkCase >= 0) {
+            harness.runFork(forkCase, System.out);
+            return;
+        }
+
+        harness.run(System.out);
+
+        try (Writer out = new FileWriter(output, StandardCharsets.UTF_8)) {
+            harness.writeJson(out);
+        }
+        System.out.println("# results written to " + output);
+    }
+}
@@ -0,0 +1,85 @@
+package benchmark;
+
+import clip.Clipper;
+import clip.StreamingClipper;
+import model.Point;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Ořezávaný polygon je hvězda (nekonvexní), ořezávací polygon konvexní a oba se překrývají jen částečně,
+// takže se na každé hraně ořezu počítají průsečíky
+public class ClipBenchmarks {
+    private static final int[] SUBJECT_VERTICES = {4, 32, 256};
+    private static final int[] CLIP_VERTICES = {3, 8, 32};
+    private static final int[][] ARRAY_SIZES = {{256, 32}, {10000, 1000}};
+    private static final int[] BATCH_SIZES = {1000, 10000};
+
+    public static void register(Harness harness) {
+        for (int subjectVertices : SUBJECT_VERTICES) {
+            for (int clipVertices : CLIP_VERTICES) {
+                harness.add("clip", Harness.params("subjectVertices", subjectVertices, "clipVertices", clipVertices),
+                        () -> setup(subjectVertices, clipVertices));
+            }
+        }
+        for (int[] size : ARRAY_SIZES) {
+            harness.add("clipArrays", Harness.params("subjectVertices", size[0], "clipVertices", size[1]),
+                    () -> setupArrays(size[0], size[1], false));
+            harness.add("clipStreaming", Harness.params("subjectVertices", size[0], "clipVertices", size[1]),
+                    () -> setupArrays(size[0], size[1], true));
+        }
+        for (int subjects : BATCH_SIZES) {
+            harness.add("clipBatch", Harness.params("subjects", subjects), () -> setupBatch(subjects));
+        }
+    }
+
+    private static Harness.Operation setup(int subjectVertices, int clipVertices) {
+        List<Point> subject = Shapes.points(Shapes.starPolygon(subjectVertices, 400, 300, 250, 150));
+        List<Point> clip = Shapes.points(Shapes.regularPolygon(clipVertices, 550, 300, 220));
+        // Clipper bere vnitřek vlevo od hrany, generátor vrací vrcholy v opačném pořadí
+        Collections.reverse(clip);
+        Clipper clipper = new Clipper();
+
+        return () -> clipper.clip(subject, clip).size();
+    }
+
+    // Ořezání přes pole, bez převodu na List<Point> a zpět; streaming = StreamingClipper místo Clipper
+    private static Harness.Operation setupArrays(int subjectVertices, int clipVertices, boolean streaming) {
+        List<Point> subject = Shapes.points(Shapes.starPolygon(subjectVertices, 400, 300, 250, 150));
+        List<Point> clip = Shapes.points(Shapes.regularPolygon(clipVertices, 550, 300, 220));
+        Collections.reverse(clip);
+
+        int[] xs = new int[subject.size()], ys = new int[subject.size()];
+        for (int i = 0; i < subject.size(); i++) {
+            xs[i] = subject.get(i).getX();
+            ys[i] = subject.get(i).getY();
+        }
+        int[] clipXs = new int[clip.size()], clipYs = new int[clip.size()];
+        for (int i = 0; i < clip.size(); i++) {
+            clipXs[i] = clip.get(i).getX();
+            clipYs[i] = clip.get(i).getY();
+        }
+        if (streaming) {
+            StreamingClipper clipper = new StreamingClipper();
+            return () -> clipper.clip(xs, ys, 0, xs.length, clipXs, clipYs, 0, clipXs.length);
+        }
+        Clipper clipper = new Clipper();
+        return () -> clipper.clip(xs, ys, 0, xs.length, clipXs, clipYs, 0, clipXs.length);
+    }
+
+    // Mřížka malých hvězd přes celé plátno ořezaná osmiúhelníkem: část je celá uvnitř, část celá vně, zbytek se ořezává
+    private static Harness.Operation setupBatch(int subjects) {
+        int columns = (int) Math.ceil(Math.sqrt(subjects * 4 / 3.0));
+        List<List<Point>> polygons = new ArrayList<>(subjects);
+        for (int i = 0; i < subjects; i++) {
+            int cx = 10 + (i % columns) * 1000 / columns;
+            int cy = 10 + (i / columns) * 750 / columns;
+            polygons.add(Shapes.points(Shapes.starPolygon(10, cx, cy, 12, 6)));
+        }
+        List<Point> clip = Shapes.points(Shapes.regularPolygon(8, 500, 375, 300));
+        Collections.reverse(clip);
+
+        return () -> Clipper.clipAll(polygons, clip).size();
+    }
+}
@@ -0,0 +1,98 @@
+package benchmark;
+
+import fill.ScanLine;
+import fill.SeedFill;
+import model.Polygon;
+import rasterize.LineRasterizer;
+import rasterize.LineRasterizerBresenham;
+import rasterize.RasterBufferedImage;
+
+import java.awt.*;
+
+public class FillBenchmarks {
+    private static final int[] VERTICES = {4, 16, 64, 256};
+    private static final String[] CONVEXITY = {"convex", "star"};
+    private static final int[] SEED_SIZES = {64, 256, 512};
+    private static final String[] SEED_SHAPES = {"rect", "comb"};
+
+    public static void register(Harness harness, Dimension[] canvases) {
+        for (Dimension canvas : canvases) {
+            for (String convexity : CONVEXITY) {
+                for (int vertices : VERTICES) {
+                    for (boolean parallel : new boolean[]{false, true}) {
+                        for (boolean pattern : new boolean[]{false, true}) {
+                            harness.add("scanline", Harness.params("canvas", canvas.width + "x" + canvas.height,
+                                            "convexity", convexity, "vertices", vertices, "parallel", parallel, "pattern", pattern),
+                                    () -> scanLine(canvas, convexity, vertices, parallel, pattern));
+                        }
+                    }
+                }
+            }
+        }
+
+        for (Dimension canvas : canvases) {
+            for (String shape : SEED_SHAPES) {
+                for (int size : SEED_SIZES) {
+                    for (boolean pattern : new boolean[]{false, true}) {
+                        harness.add("seedfill", Harness.params("canvas", canvas.width + "x" + canvas.height,
+                                        "shape", shape, "size", size, "pattern", pattern),
+                                () -> seedFill(canvas, shape, size, pattern));
+                    }
+                }
+            }
+        }
+    }
+
+    private static Harness.Operation scanLine(Dimension canvas, String convexity, int vertices, boolean parallel, boolean pattern) {
+        RasterBufferedImage raster = new RasterBufferedImage(canvas.width, canvas.height);
+        LineRasterizer rasterizer = new LineRasterizerBresenham(raster);
+        Polygon polygon = Shapes.polygon(convexity, vertices, canvas.width, canvas.height);
+
+        ScanLine scanLine = new ScanLine(raster, rasterizer, polygon, Color.GREEN.getRGB(), pattern);
+        scanLine.setParallel(parallel);
+
+        return () -> {
+            scanLine.fill();
+            return raster.getPixels()[(canvas.height / 2) * canvas.width + canvas.width / 2];
+        };
+    }
+
+    // Seed fill přepisuje rastr, proto operace nejdřív obnoví původní obsah (jeden System.arraycopy celého kanvasu,
+    // jeho cena je v naměřeném čase zahrnutá a dá se odečíst z případu s nejmenší oblastí)
+    private static Harness.Operation seedFill(Dimension canvas, String shape, int size, boolean pattern) {
+        RasterBufferedImage raster = new RasterBufferedImage(canvas.width, canvas.height);
+        LineRasterizer rasterizer = new LineRasterizerBresenham(raster);
+        int border = Color.BLUE.getRGB();
+
+        int side = Math.min(size, Math.min(canvas.width, canvas.height) - 2);
+        int x0 = (canvas.width - side) / 2;
+        int y0 = (canvas.height - side) / 2;
+        int x1 = x0 + side - 1;
+        int y1 = y0 + side - 1;
+
+        rasterizer.rasterize(x0, y0, x1, y0, border, border);
+        rasterizer.rasterize(x1, y0, x1, y1, border, border);
+        rasterizer.rasterize(x1, y1, x0, y1, border, border);
+        rasterizer.rasterize(x0, y1, x0, y0, border, border);
+
+        if (shape.equals("comb")) {
+            // Zuby střídavě od horní a dolní hrany, vyplňování musí projít hadovitou cestu
+            for (int x = x0 + 4, i = 0; x < x1 - 1; x += 4, i++) {
+                if (i % 2 == 0) rasterizer.rasterize(x, y0, x, y1 - 3, border, border);
+                else rasterizer.rasterize(x, y0 + 3, x, y1, border, border);
+            }
+        }
+
+        int[] template = raster.getPixels().clone();
+        int[] pixels = raster.getPixels();
+        int fillColor = Color.YELLOW.getRGB();
+        int startX = x0 + 2;
+        int startY = y0 + 2;
+
+        return () -> {
+            System.arraycopy(template, 0, pixels, 0, pixels.length);
+            new SeedFill(raster, fillColor, startX, startY, pattern).fill();
+            return pixels[(y0 + y1) / 2 * canvas.width + x1 - 2];
+        };
+    }
+}
@@ -0,0 +1,299 @@
+package benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+// Jednoduchý měřicí harness ve stylu JMH (režim average time)
+// Postup měření:
+// 1 - Pro každý případ zavolá setup, který připraví data mimo měřený čas a vrátí měřenou operaci
+// 2 - Zahřívání: operaci volá v dávkách a dávku zdvojnásobuje, dokud jedna dávka netrvá aspoň BATCH_NANOS
+//     (volání System.nanoTime pak neovlivní výsledek ani u velmi krátkých operací)
+// 3 - Měření: několik iterací pevné délky, pro každou spočítá průměrný čas jedné operace
+// 4 - Výsledek = průměr iterací, chyba = polovina 99.9% intervalu spolehlivosti (Studentovo t), stejně jako JMH
+// 5 - Výsledky zapíše jako JSON se stejnými klíči jako JMH (-rf json), aby šly porovnávat stejnými nástroji
+// Každý případ se měří v nových JVM (forks, stejně jako JMH -f): rodič spustí main třídu s -fork-case <index>,
+// potomek změří jen tento případ a vypíše výsledky iterací. Profil JIT tak nezávisí na tom, které případy běžely
+// dřív (např. volání rasterize by se jinak po trivial/bresenham/aa stalo megamorfním). forks = 0 měří v tomto JVM.
+
+public class Harness {
+    public interface Operation {
+        // Vrácená hodnota se sčítá do sink, aby JIT nemohl výpočet zahodit
+        long run();
+    }
+
+    private record Case(String benchmark, Map<String, String> params, Supplier<Operation> setup) {
+    }
+
+    // scores = výsledky iterací po forcích, score a chyba se počítají ze všech iterací dohromady
+    private record Result(Case benchmarkCase, double[][] scores) {
+        double[] all() {
+            return Arrays.stream(scores).flatMapToDouble(Arrays::stream).toArray();
+        }
+    }
+
+    private static final String FORK_CASE = "-fork-case";
+    private static final String SCORES = "# scores";
+
+    private static final long BATCH_NANOS = 1_000_000L;
+    private static final double[] T_999 = {636.619, 31.599, 12.924, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587};
+
+    private final Class<?> mainClass;
+    private final List<Case> cases = new ArrayList<>();
+    private final List<Result> results = new ArrayList<>();
+    private int warmupIterations = 3;
+    private int measurementIterations = 5;
+    private long iterationNanos = 200_000_000L;
+    private int forks = 1;
+    private Pattern filter;
+    private long sink;
+
+    // mainClass musí při -fork-case zaregistrovat stejné případy ve stejném pořadí a zavolat runFork
+    public Harness(Class<?> mainClass) {
+        this.mainClass = mainClass;
+    }
+
+    public static Map<String, String> params(Object... keyValues) {
+        Map<String, String> params = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < keyValues.length; i += 2) {
+            params.put(String.valueOf(keyValues[i]), String.valueOf(keyValues[i + 1]));
+        }
+        return params;
+    }
+
+    public void add(String benchmark, Map<String, String> params, Supplier<Operation> setup) {
+        cases.add(new Case(benchmark, params, setup));
+    }
+
+    public void setWarmupIterations(int warmupIterations) {
+        this.warmupIterations = warmupIterations;
+    }
+
+    public void setMeasurementIterations(int measurementIterations) {
+        this.measurementIterations = measurementIterations;
+    }
+
+    public void setIterationMillis(long iterationMillis) {
+        this.iterationNanos = iterationMillis * 1_000_000L;
+    }
+
+    public void setForks(int forks) {
+        this.forks = Math.max(0, forks);
+    }
+
+    public void setFilter(String regex) {
+        this.filter = regex == null ? null : Pattern.compile(regex);
+    }
+
+    public void run(PrintStream log) throws IOException {
+        List<Integer> selected = new ArrayList<>();
+        for (int i = 0; i < cases.size(); i++) {
+            Case c = cases.get(i);
+            if (filter == null || filter.matcher(c.benchmark() + c.params()).find()) selected.add(i);
+        }
+
+        for (int i = 0; i < selected.size(); i++) {
+            Case c = cases.get(selected.get(i));
+            double[][] scores;
+            if (forks == 0) {
+                scores = new double[][]{measure(c)};
+            } else {
+                scores = new double[forks][];
+                for (int f = 0; f < forks; f++) {
+                    scores[f] = fork(selected.get(i));
+                }
+            }
+            Result result = new Result(c, scores);
+            results.add(result);
+
+            log.printf("[%d/%d] %-10s %-60s %12.3f +- %.3f ns/op%n", i + 1, selected.size(), c.benchmark(), c.params(),
+                    mean(result.all()), error(result.all()));
+        }
+        if (forks == 0) log.println("# sink " + sink);
+    }
+
+    // Vstup potomka: změří jeden případ a výsledky iterací vypíše rodiči na standardní výstup
+    public void runFork(int caseIndex, PrintStream out) {
+        double[] scores = measure(cases.get(caseIndex));
+        StringBuilder line = new StringBuilder(SCORES);
+        for (double score : scores) {
+            line.append(' ').append(score);
+        }
+        out.println(line);
+        out.println("# sink " + sink);
+    }
+
+    public static boolean isForkArgument(String arg) {
+        return FORK_CASE.equals(arg);
+    }
+
+    // Nové JVM se stejnými volbami JVM a classpath jako rodič
+    private double[] fork(int caseIndex) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), mainClass.getName(),
+                FORK_CASE, String.valueOf(caseIndex),
+                "-wi", String.valueOf(warmupIterations), "-i", String.valueOf(measurementIterations),
+                "-t", String.valueOf(iterationNanos / 1_000_000L)));
+
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        double[] scores = null;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.startsWith(SCORES)) {
+                    scores = Arrays.stream(line.substring(SCORES.length()).trim().split(" "))
+                            .mapToDouble(Double::parseDouble).toArray();
+                }
+            }
+        }
+
+        try {
+            int exit = process.waitFor();
+            if (exit != 0 || scores == null) {
+                throw new IOException("benchmark fork for case " + caseIndex + " failed (exit " + exit + ")");
+            }
+        } catch (InterruptedException e) {
+            process.destroy();
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting for benchmark fork", e);
+        }
+        return scores;
+    }
+
+    private double[] measure(Case c) {
+        Operation operation = c.setup().get();
+
+        int batch = 1;
+        for (int i = 0; i < warmupIterations; i++) {
+            long end = System.nanoTime() + iterationNanos;
+            while (System.nanoTime() < end) {
+                long start = System.nanoTime();
+                runBatch(operation, batch);
+                if (System.nanoTime() - start < BATCH_NANOS && batch < (1 << 30)) batch *= 2;
+            }
+        }
+
+        double[] scores = new double[measurementIterations];
+        for (int i = 0; i < measurementIterations; i++) {
+            long ops = 0;
+            long start = System.nanoTime();
+            long elapsed;
+            do {
+                runBatch(operation, batch);
+                ops += batch;
+                elapsed = System.nanoTime() - start;
+            } while (elapsed < iterationNanos);
+            scores[i] = (double) elapsed / ops;
+        }
+        return scores;
+    }
+
+    private void runBatch(Operation operation, int batch) {
+        long acc = 0;
+        for (int i = 0; i < batch; i++) {
+            acc += operation.run();
+        }
+        sink += acc;
+    }
+
+    public void writeJson(Writer out) throws IOException {
+        String jdk = System.getProperty("java.version");
+        String vm = System.getProperty("java.vm.name");
+
+        out.write("[\n");
+        for (int i = 0; i < results.size(); i++) {
+            Result r = results.get(i);
+            double[] scores = r.all();
+
+            out.write("  {\n");
+            out.write("    \"benchmark\": " + quote(r.benchmarkCase().benchmark()) + ",\n");
+            out.write("    \"mode\": \"avgt\",\n");
+            out.write("    \"jdkVersion\": " + quote(jdk) + ",\n");
+            out.write("    \"vmName\": " + quote(vm) + ",\n");
+            out.write("    \"warmupIterations\": " + warmupIterations + ",\n");
+            out.write("    \"measurementIterations\": " + measurementIterations + ",\n");
+            out.write("    \"measurementTime\": \"" + iterationNanos / 1_000_000L + " ms\",\n");
+            out.write("    \"forks\": " + forks + ",\n");
+            out.write("    \"params\": {");
+            int p = 0;
+            for (Map.Entry<String, String> e : r.benchmarkCase().params().entrySet()) {
+                out.write((p++ == 0 ? "" : ", ") + quote(e.getKey()) + ": " + quote(e.getValue()));
+            }
+            out.write("},\n");
+            out.write("    \"primaryMetric\": {\n");
+            out.write("      \"score\": " + number(mean(scores)) + ",\n");
+            out.write("      \"scoreError\": " + number(error(scores)) + ",\n");
+            out.write("      \"scoreUnit\": \"ns/op\",\n");
+            out.write("      \"rawData\": [");
+            for (int f = 0; f < r.scores().length; f++) {
+                double[] fork = r.scores()[f];
+                out.write(f == 0 ? "[" : ", [");
+                for (int s = 0; s < fork.length; s++) {
+                    out.write((s == 0 ? "" : ", ") + number(fork[s]));
+                }
+                out.write("]");
+            }
+            out.write("]\n");
+            out.write("    }\n");
+            out.write(i + 1 < results.size() ? "  },\n" : "  }\n");
+        }
+        out.write("]\n");
+        out.flush();
+    }
+
+    private static double mean(double[] values) {
+        double sum = 0;
+        for (double v : values) sum += v;
+        return sum / values.length;
+    }
+
+    private static double error(double[] values) {
+        int n = values.length;
+        if (n < 2) return Double.NaN;
+
+        double mean = mean(values);
+        double variance = 0;
+        for (double v : values) variance += (v - mean) * (v - mean);
+        variance /= n - 1;
+
+        int df = n - 1;
+        double z = 3.2905;
+        double t = df <= T_999.length ? T_999[df - 1] : z + (z * z * z + z) / (4 * df);
+        return t * Math.sqrt(variance / n);
+    }
+
+    private static String number(double value) {
+        return Double.isFinite(value) ? String.format(Locale.ROOT, "%.3f", value) : "\"NaN\"";
+    }
+
+    private static String quote(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char ch : s.toCharArray()) {
+            switch (ch) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                default -> {
+                    if (ch < 0x20) sb.append(String.format("\\u%04x", (int) ch));
+                    else sb.append(ch);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,61 @@
+package benchmark;
+
+import rasterize.LineRasterizer;
+import rasterize.LineRasterizerAA;
+import rasterize.LineRasterizerBresenham;
+import rasterize.LineRasterizerTrivial;
+import rasterize.RasterBufferedImage;
+
+import java.awt.*;
+
+// Jedna operace = jedna úsečka dané délky a sklonu, začátek se posouvá po kanvasu, aby se neměřil stále stejný řádek cache
+public class LineBenchmarks {
+    private static final String[] RASTERIZERS = {"trivial", "bresenham", "aa"};
+    private static final int[] LENGTHS = {16, 128, 1024};
+    private static final int[] ANGLES = {0, 30, 45, 80};
+    private static final int POSITIONS = 64;
+
+    public static void register(Harness harness, Dimension[] canvases) {
+        for (Dimension canvas : canvases) {
+            for (String rasterizer : RASTERIZERS) {
+                for (int length : LENGTHS) {
+                    for (int angle : ANGLES) {
+                        harness.add("line", Harness.params("canvas", canvas.width + "x" + canvas.height,
+                                        "rasterizer", rasterizer, "length", length, "angle", angle),
+                                () -> setup(canvas, rasterizer, length, angle));
+                    }
+                }
+            }
+        }
+    }
+
+    private static Harness.Operation setup(Dimension canvas, String name, int length, int angle) {
+        RasterBufferedImage raster = new RasterBufferedImage(canvas.width, canvas.height);
+        LineRasterizer rasterizer = switch (name) {
+            case "trivial" -> new LineRasterizerTrivial(raster);
+            case "bresenham" -> new LineRasterizerBresenham(raster);
+            case "aa" -> new LineRasterizerAA(raster);
+            default -> throw new IllegalArgumentException("Unknown rasterizer: " + name);
+        };
+
+        int dx = (int) Math.round(length * Math.cos(Math.toRadians(angle)));
+        int dy = (int) Math.round(length * Math.sin(Math.toRadians(angle)));
+
+        int[] x1 = new int[POSITIONS];
+        int[] y1 = new int[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            x1[i] = Math.max(0, canvas.width - dx) * i / POSITIONS;
+            y1[i] = Math.max(0, canvas.height - dy) * ((i * 37) % POSITIONS) / POSITIONS;
+        }
+
+        int c1 = Color.WHITE.getRGB();
+        int c2 = Color.ORANGE.getRGB();
+        int[] counter = new int[1];
+
+        return () -> {
+            int i = counter[0]++ & (POSITIONS - 1);
+            rasterizer.rasterize(x1[i], y1[i], x1[i] + dx, y1[i] + dy, c1, c2);
+            return raster.getPixels()[0];
+        };
+    }
+}
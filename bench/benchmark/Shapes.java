@@ -0,0 +1,38 @@
+package benchmark;
+
+import model.Point;
+import model.Polygon;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Generátory vstupních dat pro benchmarky, všechna data jsou deterministická
+public class Shapes {
+    public static Polygon regularPolygon(int vertices, int cx, int cy, int radius) {
+        return starPolygon(vertices, cx, cy, radius, radius);
+    }
+
+    // Sudé vrcholy leží na vnější kružnici, liché na vnitřní, pro innerRadius < radius je polygon nekonvexní
+    public static Polygon starPolygon(int vertices, int cx, int cy, int radius, int innerRadius) {
+        Polygon polygon = new Polygon();
+        for (int i = 0; i < vertices; i++) {
+            double angle = 2 * Math.PI * i / vertices;
+            int r = (i % 2 == 0) ? radius : innerRadius;
+            polygon.addPoint(new Point(cx + (int) Math.round(r * Math.cos(angle)), cy + (int) Math.round(r * Math.sin(angle))));
+        }
+        return polygon;
+    }
+
+    public static Polygon polygon(String convexity, int vertices, int width, int height) {
+        int radius = Math.min(width, height) * 2 / 5;
+        return switch (convexity) {
+            case "convex" -> regularPolygon(vertices, width / 2, height / 2, radius);
+            case "star" -> starPolygon(vertices, width / 2, height / 2, radius, radius / 3);
+            default -> throw new IllegalArgumentException("Unknown convexity: " + convexity);
+        };
+    }
+
+    public static List<Point> points(Polygon polygon) {
+        return new ArrayList<>(polygon.points());
+    }
+}
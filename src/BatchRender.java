@@ -0,0 +1,122 @@
+import io.MappedScene;
+import io.SceneBinaryWriter;
+import io.SceneFile;
+import io.SceneTextReader;
+import rasterize.RasterBufferedImage;
+import render.SceneRenderer;
+
+import javax.imageio.ImageIO;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+// Vykreslení scén bez okna
+//   java BatchRender <scene.txt|scene.scb> <out.png>
+//   java BatchRender <scene.txt> <out.scb>          převod textové scény do binárního formátu
+//   java BatchRender [-j <vlákna>] <složka se scénami> <výstupní složka>
+// Ve složce vykreslí všechny soubory *.txt a *.scb do <jméno>.png a vypíše, kolik scén za sekundu zvládl.
+
+public class BatchRender {
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-j") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else {
+                paths.add(args[i]);
+            }
+        }
+
+        if (paths.size() != 2 || threads < 1) {
+            System.err.println("usage: BatchRender <scene.txt|scene.scb> <out.png|out.scb>");
+            System.err.println("       BatchRender [-j threads] <scene dir> <output dir>");
+            System.exit(2);
+        }
+
+        Path input = Path.of(paths.get(0));
+        Path output = Path.of(paths.get(1));
+
+        if (Files.isDirectory(input)) {
+            System.exit(renderDirectory(input, output, threads) == 0 ? 0 : 1);
+        } else {
+            if (output.getFileName().toString().endsWith(".scb")) {
+                SceneBinaryWriter.write(output, load(input));
+            } else {
+                render(input, output);
+            }
+        }
+    }
+
+    private static int renderDirectory(Path input, Path output, int threads) throws Exception {
+        List<Path> scenes;
+        try (Stream<Path> files = Files.list(input)) {
+            scenes = files.filter(p -> extension(p).equals(".txt") || extension(p).equals(".scb")).sorted().toList();
+        }
+        Files.createDirectories(output);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        int failed = 0;
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (Path scene : scenes) {
+                String name = scene.getFileName().toString();
+                Path png = output.resolve(name.substring(0, name.length() - extension(scene).length()) + ".png");
+                tasks.add(pool.submit(() -> {
+                    render(scene, png);
+                    return null;
+                }));
+            }
+
+            for (int i = 0; i < tasks.size(); i++) {
+                try {
+                    tasks.get(i).get();
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    System.err.println(scenes.get(i) + ": " + cause.getMessage());
+                    failed++;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int rendered = scenes.size() - failed;
+        System.out.printf("%d scenes rendered, %d failed, %.2f s, %.1f scenes/s (%d threads)%n",
+                rendered, failed, seconds, rendered / seconds, threads);
+        return failed;
+    }
+
+    private static void render(Path scenePath, Path png) throws IOException {
+        SceneFile file = load(scenePath);
+        RasterBufferedImage raster = new RasterBufferedImage(file.width(), file.height());
+        new SceneRenderer().render(file.scene(), raster, null);
+
+        if (!ImageIO.write(raster.getImage(), "png", png.toFile())) {
+            throw new IOException("no PNG writer available");
+        }
+    }
+
+    private static SceneFile load(Path scenePath) throws IOException {
+        if (extension(scenePath).equals(".scb")) {
+            return MappedScene.open(scenePath).toSceneFile();
+        }
+        return SceneTextReader.read(scenePath);
+    }
+
+    private static String extension(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot);
+    }
+}
@@ -1,87 +1,292 @@
 package clip;
 
+import jfr.ClipEvent;
 import model.Point;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.IntStream;
+
+// Ořezání polygonu konvexním polygonem (Sutherland-Hodgman)
+// Postup algoritmu:
+// 1 - Vrcholy ořezávaného polygonu převede do polí double
+// 2 - Postupně ořízne polygon každou hranou ořezávacího polygonu; vnitřek je vlevo od hrany
+//     (v souřadnicích obrazovky tedy ořezávací polygon proti směru hodinových ručiček)
+// 3 - Výstup jedné hrany je vstupem další, střídají se dvě dvojice polí (ping-pong), které se mezi voláními znovu používají
+// 4 - Průsečík se počítá ze znaménkových vzdáleností obou vrcholů od přímky hrany a zůstává v double,
+//     na celá čísla se zaokrouhlí až výsledek po poslední hraně
+// Před ořezáním se obal (bounding box) ořezávaného polygonu porovná s hranami: leží-li všechny čtyři rohy obalu
+// uvnitř každé hrany, polygon se vrátí beze změny; leží-li všechny vně některé hrany, výsledek je prázdný.
+// Znaménková vzdálenost je lineární, takže o vrcholech uvnitř obalu platí totéž co o rozích a výsledek
+// je stejný jako po plném ořezání. Polygon s méně než dvěma vrcholy se neořezává (stejně jako dřív).
+// Po zahřátí (pole už mají potřebnou velikost) ořezání přes pole nevytváří žádné objekty.
+// Instance není vláknově bezpečná; clipAll ořezává mnoho polygonů paralelně, každé vlákno s vlastní instancí.
 
 public class Clipper {
-    public static class Edge {
-        Point p1;
-        Point p2;
+    static final int INSIDE = 0;
+    static final int OUTSIDE = 1;
+    static final int PARTIAL = 2;
 
-        public Edge(Point p1, Point p2) {
-            this.p1 = p1;
-            this.p2 = p2;
-        }
+    private static final ThreadLocal<Clipper> LOCAL = ThreadLocal.withInitial(Clipper::new);
 
-        public boolean inside(Point p) {
-            Point v1 = new Point(this.p2.getX() - this.p1.getX(), this.p2.getY() - this.p1.getY());
-            Point n1 = new Point(-v1.getY(), v1.getX());
-            Point v2 = new Point(p.getX() - this.p1.getX(), p.getY() - this.p1.getY());
-            return (n1.getX() * v2.getX() + n1.getY() * v2.getY() < 0.0D);
-        }
+    private double[] inX = new double[64];
+    private double[] inY = new double[64];
+    private double[] outX = new double[64];
+    private double[] outY = new double[64];
+
+    private int[] resultX = new int[64];
+    private int[] resultY = new int[64];
+
+    private int minX, minY, maxX, maxY;
+
+    public List<Point> clip(List<Point> points, List<Point> clipPoints) {
+        if (clipPoints.size() < 2) return points;
+
+        int[] clipXs = xsOf(clipPoints);
+        int[] clipYs = ysOf(clipPoints);
+        return toPoints(clip(load(points), clipXs, clipYs, 0, clipXs.length));
+    }
+
+    // Ořízne všechny polygony stejným ořezávacím polygonem, výsledky jsou ve stejném pořadí jako subjects
+    // Polygony celé uvnitř se vrací beze změny (tentýž seznam), polygony celé vně jako prázdný seznam
+    public static List<List<Point>> clipAll(List<? extends List<Point>> subjects, List<Point> clipPoints) {
+        return clipAll(subjects, clipPoints, 0);
+    }
 
-        public boolean inside2(Point p) {
-            return ((this.p2.getY() - this.p1.getY()) * p.getX() - (this.p2.getX() - this.p1.getX()) * p.getY() + this.p2.getX() * this.p1.getY() - this.p2.getY() * this.p1.getX() > 0.0D);
+    // frame se zapíše do ClipEvent, aby šlo ořezání přiřadit ke snímku
+    public static List<List<Point>> clipAll(List<? extends List<Point>> subjects, List<Point> clipPoints, long frame) {
+        if (clipPoints.size() < 2) return new ArrayList<>(subjects);
+
+        int[] clipXs = xsOf(clipPoints);
+        int[] clipYs = ysOf(clipPoints);
+        // Vlákna zapisují přes set každé na jiný index, velikost seznamu se nemění
+        List<List<Point>> clipped = new ArrayList<>(Collections.nCopies(subjects.size(), null));
+
+        IntStream.range(0, clipped.size()).parallel().forEach(i -> {
+            ClipEvent event = new ClipEvent();
+            event.begin();
+            Clipper clipper = LOCAL.get();
+            List<Point> subject = subjects.get(i);
+            int count = clipper.load(subject);
+            int side = count < 2 ? INSIDE : classify(clipper.minX, clipper.minY, clipper.maxX, clipper.maxY, clipXs, clipYs, 0, clipXs.length);
+            List<Point> result = switch (side) {
+                case INSIDE -> subject;
+                case OUTSIDE -> List.of();
+                default -> clipper.toPoints(clipper.clipEdges(count, clipXs, clipYs, 0, clipXs.length));
+            };
+            clipped.set(i, result);
+            commit(event, frame, i, clipper, count, clipXs.length, result.size(), side);
+        });
+
+        return clipped;
+    }
+
+    // Ořízne polygon xs[offset ..], ys[offset ..] o count vrcholech polygonem clipXs[clipOffset ..], clipYs[clipOffset ..]
+    // Vrací počet vrcholů výsledku, vrcholy jsou v getResultXs() / getResultYs()
+    public int clip(int[] xs, int[] ys, int offset, int count, int[] clipXs, int[] clipYs, int clipOffset, int clipCount) {
+        ensureCapacity(count);
+        minX = minY = Integer.MAX_VALUE;
+        maxX = maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            int x = xs[offset + i], y = ys[offset + i];
+            inX[i] = x;
+            inY[i] = y;
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
         }
+        return clip(count, clipXs, clipYs, clipOffset, clipCount);
+    }
 
-        public double distance(Point p) {
-            return Math.abs(((this.p2.getY() - this.p1.getY()) * p.getX() - (this.p2.getX() - this.p1.getX()) * p.getY() + this.p2.getX() * this.p1.getY() - this.p2.getY() * this.p1.getX()) / Math.sqrt((this.p2.getY() - this.p1.getY()) * (this.p2.getY() - this.p1.getY()) + (this.p2.getX() - this.p1.getX()) * (this.p2.getX() - this.p1.getX())));
+    // Vrcholy jsou už v inX / inY, jejich obal v minX .. maxY
+    private int clip(int count, int[] clipXs, int[] clipYs, int clipOffset, int clipCount) {
+        ClipEvent event = new ClipEvent();
+        event.begin();
+
+        int side = INSIDE;
+        if (count >= 2 && clipCount >= 2) {
+            side = classify(minX, minY, maxX, maxY, clipXs, clipYs, clipOffset, clipCount);
         }
+        int result = switch (side) {
+            case OUTSIDE -> 0;
+            case PARTIAL -> clipEdges(count, clipXs, clipYs, clipOffset, clipCount);
+            default -> round(count);
+        };
 
-        public Point intersection(Point v1, Point v2) {
-            double numX = (v1.getX() * v2.getY() - v1.getY() * v2.getX()) * (this.p1.getX() - this.p2.getX()) - (this.p1.getX() * this.p2.getY() - this.p1.getY() * this.p2.getX()) * (v1.getX() - v2.getX());
+        commit(event, 0, -1, this, count, clipCount, result, side);
+        return result;
+    }
 
-            double numY = (v1.getX() * v2.getY() - v1.getY() * v2.getX()) * (this.p1.getY() - this.p2.getY()) - (this.p1.getX() * this.p2.getY() - this.p1.getY() * this.p2.getX()) * (v1.getY() - v2.getY());
+    // bounds = obal ořezávaného polygonu v minX .. maxY
+    private static void commit(ClipEvent event, long frame, int index, Clipper bounds,
+                               int inputVertices, int clipVertices, int outputVertices, int side) {
+        event.end();
+        if (!event.shouldCommit()) return;
 
-            double den = (v1.getX() - v2.getX()) * (this.p1.getY() - this.p2.getY()) - (this.p1.getX() - this.p2.getX()) * (v1.getY() - v2.getY());
+        event.frame = frame;
+        event.index = index;
+        event.minX = bounds.minX;
+        event.minY = bounds.minY;
+        event.maxX = bounds.maxX;
+        event.maxY = bounds.maxY;
+        event.inputVertices = inputVertices;
+        event.clipVertices = clipVertices;
+        event.outputVertices = outputVertices;
+        event.result = switch (side) {
+            case INSIDE -> "inside";
+            case OUTSIDE -> "outside";
+            default -> "clipped";
+        };
+        event.commit();
+    }
 
-            if (Math.abs(den) < 1e-9) return null;
+    private int clipEdges(int count, int[] clipXs, int[] clipYs, int clipOffset, int clipCount) {
+        int last = clipOffset + clipCount - 1;
+        double p1x = clipXs[last], p1y = clipYs[last];
 
-            double px = numX / den;
-            double py = numY / den;
+        for (int e = clipOffset; e <= last && count >= 2; e++) {
+            double p2x = clipXs[e], p2y = clipYs[e];
+            count = clipEdge(count, p1x, p1y, p2x - p1x, p2y - p1y);
+            p1x = p2x;
+            p1y = p2y;
+        }
+        return round(count);
+    }
 
-            return new Point((int) Math.round(px), (int) Math.round(py));
+    private int round(int count) {
+        if (resultX.length < count) {
+            resultX = new int[Math.max(count, resultX.length * 2)];
+            resultY = new int[resultX.length];
         }
+        for (int i = 0; i < count; i++) {
+            resultX[i] = (int) Math.round(inX[i]);
+            resultY[i] = (int) Math.round(inY[i]);
+        }
+        return count;
     }
 
-    public List<Point> clip(List<Point> points, List<Point> clipPoints) {
-        if (clipPoints.size() < 2) return points;
+    // Poloha obalu vůči ořezávacímu polygonu: INSIDE, OUTSIDE, nebo PARTIAL (je potřeba ořezávat)
+    static int classify(int minX, int minY, int maxX, int maxY, int[] clipXs, int[] clipYs, int clipOffset, int clipCount) {
+        int last = clipOffset + clipCount - 1;
+        double p1x = clipXs[last], p1y = clipYs[last];
+        boolean inside = true;
 
-        List<Point> newPoints = points;
-        Point p1 = clipPoints.get(clipPoints.size() - 1);
+        for (int e = clipOffset; e <= last; e++) {
+            double p2x = clipXs[e], p2y = clipYs[e];
+            double dx = p2x - p1x, dy = p2y - p1y;
 
-        for (Point p2 : clipPoints) {
-            newPoints = clipEdge(newPoints, new Edge(p1, p2));
-            p1 = p2;
+            int cornersInside = 0;
+            if (dx * (minY - p1y) - dy * (minX - p1x) < 0) cornersInside++;
+            if (dx * (minY - p1y) - dy * (maxX - p1x) < 0) cornersInside++;
+            if (dx * (maxY - p1y) - dy * (minX - p1x) < 0) cornersInside++;
+            if (dx * (maxY - p1y) - dy * (maxX - p1x) < 0) cornersInside++;
+
+            if (cornersInside == 0) return OUTSIDE;
+            if (cornersInside < 4) inside = false;
+            p1x = p2x;
+            p1y = p2y;
         }
+        return inside ? INSIDE : PARTIAL;
+    }
 
-        return newPoints;
+    public int[] getResultXs() {
+        return resultX;
     }
 
-    private List<Point> clipEdge(List<Point> points, Edge e) {
-        if (points.size() < 2) return points;
+    public int[] getResultYs() {
+        return resultY;
+    }
 
-        List<Point> out = new ArrayList<>();
-        Point v1 = points.get(points.size() - 1);
+    // Jedna hrana: bod p1, směr (dx, dy); vrchol je uvnitř, když -dy * (x - p1x) + dx * (y - p1y) < 0
+    private int clipEdge(int count, double p1x, double p1y, double dx, double dy) {
+        ensureCapacity(2 * count);
 
-        for (Point v2 : points) {
-            if (e.inside(v2)) {
-                if (!e.inside(v1)) {
-                    Point intersection = e.intersection(v1, v2);
-                    if (intersection != null) out.add(intersection);
+        int out = 0;
+        double v1x = inX[count - 1], v1y = inY[count - 1];
+        double d1 = dx * (v1y - p1y) - dy * (v1x - p1x);
+
+        for (int i = 0; i < count; i++) {
+            double v2x = inX[i], v2y = inY[i];
+            double d2 = dx * (v2y - p1y) - dy * (v2x - p1x);
+
+            if (d2 < 0) {
+                if (d1 >= 0) {
+                    double t = d1 / (d1 - d2);
+                    outX[out] = v1x + t * (v2x - v1x);
+                    outY[out] = v1y + t * (v2y - v1y);
+                    out++;
                 }
-                out.add(v2);
-            } else if (e.inside(v1)) {
-                Point intersection = e.intersection(v1, v2);
-                if (intersection != null) out.add(intersection);
+                outX[out] = v2x;
+                outY[out] = v2y;
+                out++;
+            } else if (d1 < 0) {
+                double t = d1 / (d1 - d2);
+                outX[out] = v1x + t * (v2x - v1x);
+                outY[out] = v1y + t * (v2y - v1y);
+                out++;
             }
-            v1 = v2;
+
+            v1x = v2x;
+            v1y = v2y;
+            d1 = d2;
         }
 
+        double[] swapX = inX;
+        double[] swapY = inY;
+        inX = outX;
+        inY = outY;
+        outX = swapX;
+        outY = swapY;
         return out;
     }
-}
\ No newline at end of file
+
+    private int load(List<Point> points) {
+        int count = points.size();
+        ensureCapacity(count);
+        minX = minY = Integer.MAX_VALUE;
+        maxX = maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            Point p = points.get(i);
+            inX[i] = p.getX();
+            inY[i] = p.getY();
+            minX = Math.min(minX, p.getX());
+            minY = Math.min(minY, p.getY());
+            maxX = Math.max(maxX, p.getX());
+            maxY = Math.max(maxY, p.getY());
+        }
+        return count;
+    }
+
+    private List<Point> toPoints(int count) {
+        List<Point> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(new Point(resultX[i], resultY[i]));
+        }
+        return result;
+    }
+
+    private static int[] xsOf(List<Point> points) {
+        int[] xs = new int[points.size()];
+        for (int i = 0; i < xs.length; i++) xs[i] = points.get(i).getX();
+        return xs;
+    }
+
+    private static int[] ysOf(List<Point> points) {
+        int[] ys = new int[points.size()];
+        for (int i = 0; i < ys.length; i++) ys[i] = points.get(i).getY();
+        return ys;
+    }
+
+    private void ensureCapacity(int count) {
+        if (inX.length >= count) return;
+
+        int capacity = Math.max(count, inX.length * 2);
+        inX = Arrays.copyOf(inX, capacity);
+        inY = Arrays.copyOf(inY, capacity);
+        outX = new double[capacity];
+        outY = new double[capacity];
+    }
+}
@@ -0,0 +1,251 @@
+package clip;
+
+import java.util.Arrays;
+
+// Ořezání polygonu konvexním polygonem (Sutherland-Hodgman) v jednom průchodu
+// Postup algoritmu:
+// 1 - Každá hrana ořezávacího polygonu je jeden stupeň řetězu; stupeň přijímá vrcholy po jednom a hned posílá
+//     své výstupní vrcholy dalšímu stupni, poslední stupeň zapisuje do výsledku; mezivýsledky se nikam neukládají
+// 2 - Stupeň si pamatuje první a předchozí vrchol (a jejich vzdálenosti od hrany); s každým dalším vrcholem
+//     zpracuje hranu předchozí -> nový stejně jako Clipper
+// 3 - Po posledním vrcholu se stupně postupně uzavřou: stupeň zpracuje uzavírací hranu poslední -> první
+//     a teprve pak se uzavře další stupeň
+// 4 - Stupeň, který dostal méně než dva vrcholy, je pošle dál beze změny (Clipper v tu chvíli ořezávání ukončí)
+// 5 - Vrcholy putují řetězem do hloubky: vrchol, ze kterého hrana vyšle jediný vrchol, pokračuje rovnou
+//     do dalšího stupně, druhý vrchol (průsečík + vrchol) čeká na vlastním zásobníku, ne v rekurzi (stupňů mohou být tisíce)
+// 6 - Stav stupně leží v jednom poli double těsně za sebou, průchod vrcholu řetězem čte paměť postupně
+// Clipper začíná výstup každé hrany uzavírací hranou, tady přijde na řadu až na konci, výsledek je proto
+// cyklicky posunutý. Posun se sleduje příznakem: stupeň označí první vrchol, který vyšle od hrany končící
+// v označeném vstupním vrcholu (u prvního stupně od uzavírací hrany); výsledek se nakonec otočí tak, aby začínal
+// označeným vrcholem. Výsledek je pak shodný s Clipper včetně pořadí vrcholů.
+// Instance není vláknově bezpečná.
+
+public class StreamingClipper {
+    // Stav stupně s v state[s * STRIDE ..]: hrana p1 + t * (dx, dy), první a předchozí vrchol a jejich vzdálenosti
+    private static final int P1X = 0, P1Y = 1, DX = 2, DY = 3;
+    private static final int FIRST_X = 4, FIRST_Y = 5, FIRST_D = 6;
+    private static final int PREV_X = 7, PREV_Y = 8, PREV_D = 9;
+    private static final int STRIDE = 10;
+
+    private double[] state = new double[16 * STRIDE];
+    private int[] received = new int[16];
+    private boolean[] startAtClose = new boolean[16];
+    private boolean[] pendingStart = new boolean[16];
+    private int stages;
+
+    // Zásobník vrcholů čekajících na zpracování: stupeň, x, y, příznak začátku
+    private int[] stackStage = new int[64];
+    private double[] stackX = new double[64], stackY = new double[64];
+    private boolean[] stackStart = new boolean[64];
+    private int stackSize;
+
+    // Vrchol vyslaný poslední hranou (edge)
+    private double emittedX, emittedY;
+    private boolean emittedStart;
+
+    private double[] outX = new double[64], outY = new double[64];
+    private int outCount;
+    private int outStart;
+
+    private int[] resultX = new int[64];
+    private int[] resultY = new int[64];
+
+    // Stejné rozhraní jako Clipper.clip přes pole, výsledek v getResultXs() / getResultYs()
+    public int clip(int[] xs, int[] ys, int offset, int count, int[] clipXs, int[] clipYs, int clipOffset, int clipCount) {
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (int i = offset; i < offset + count; i++) {
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+
+        int side = Clipper.INSIDE;
+        if (count >= 2 && clipCount >= 2) {
+            side = Clipper.classify(minX, minY, maxX, maxY, clipXs, clipYs, clipOffset, clipCount);
+        }
+        if (side == Clipper.OUTSIDE) return 0;
+        if (side == Clipper.INSIDE) {
+            ensureResultCapacity(count);
+            System.arraycopy(xs, offset, resultX, 0, count);
+            System.arraycopy(ys, offset, resultY, 0, count);
+            return count;
+        }
+
+        begin(clipXs, clipYs, clipOffset, clipCount);
+        for (int i = offset; i < offset + count; i++) {
+            run(0, xs[i], ys[i], false);
+            drain();
+        }
+        for (int s = 0; s < stages; s++) {
+            close(s);
+            drain();
+        }
+        return finish();
+    }
+
+    public int[] getResultXs() {
+        return resultX;
+    }
+
+    public int[] getResultYs() {
+        return resultY;
+    }
+
+    private void begin(int[] clipXs, int[] clipYs, int clipOffset, int clipCount) {
+        stages = clipCount;
+        if (received.length < stages) growStages(stages);
+
+        int last = clipOffset + clipCount - 1;
+        double px = clipXs[last], py = clipYs[last];
+        for (int s = 0; s < stages; s++) {
+            double qx = clipXs[clipOffset + s], qy = clipYs[clipOffset + s];
+            int base = s * STRIDE;
+            state[base + P1X] = px;
+            state[base + P1Y] = py;
+            state[base + DX] = qx - px;
+            state[base + DY] = qy - py;
+            received[s] = 0;
+            startAtClose[s] = true;
+            pendingStart[s] = false;
+            px = qx;
+            py = qy;
+        }
+        stackSize = 0;
+        outCount = 0;
+        outStart = 0;
+    }
+
+    private void drain() {
+        while (stackSize > 0) {
+            stackSize--;
+            run(stackStage[stackSize], stackX[stackSize], stackY[stackSize], stackStart[stackSize]);
+        }
+    }
+
+    // Vrchol vstupuje do stupně s a pokračuje řetězem, dokud ho některý stupeň nepohltí
+    private void run(int s, double x, double y, boolean start) {
+        for (; s < stages; s++) {
+            int base = s * STRIDE;
+            double d = state[base + DX] * (y - state[base + P1Y]) - state[base + DY] * (x - state[base + P1X]);
+
+            if (received[s]++ == 0) {
+                state[base + FIRST_X] = x;
+                state[base + FIRST_Y] = y;
+                state[base + FIRST_D] = d;
+                state[base + PREV_X] = x;
+                state[base + PREV_Y] = y;
+                state[base + PREV_D] = d;
+                return;
+            }
+
+            if (start) {
+                startAtClose[s] = false;
+                pendingStart[s] = true;
+            }
+            double v1x = state[base + PREV_X], v1y = state[base + PREV_Y], d1 = state[base + PREV_D];
+            state[base + PREV_X] = x;
+            state[base + PREV_Y] = y;
+            state[base + PREV_D] = d;
+
+            if (!edge(s, v1x, v1y, d1, x, y, d)) return;
+            x = emittedX;
+            y = emittedY;
+            start = emittedStart;
+        }
+        output(x, y, start);
+    }
+
+    private void close(int s) {
+        if (received[s] < 2) {
+            if (received[s] == 1) run(s + 1, state[s * STRIDE + FIRST_X], state[s * STRIDE + FIRST_Y], false);
+            return;
+        }
+
+        int base = s * STRIDE;
+        if (startAtClose[s]) pendingStart[s] = true;
+        if (edge(s, state[base + PREV_X], state[base + PREV_Y], state[base + PREV_D],
+                state[base + FIRST_X], state[base + FIRST_Y], state[base + FIRST_D])) {
+            run(s + 1, emittedX, emittedY, emittedStart);
+        }
+    }
+
+    // Hrana v1 -> v2 ve stupni s, výstup stejně jako Clipper.clipEdge
+    // První vyslaný vrchol vrací v emittedX / emittedY, druhý (pokud je) jde na zásobník pro stupeň s + 1
+    private boolean edge(int s, double v1x, double v1y, double d1, double v2x, double v2y, double d2) {
+        if (d2 < 0) {
+            if (d1 >= 0) {
+                double t = d1 / (d1 - d2);
+                push(s + 1, v2x, v2y);
+                emittedX = v1x + t * (v2x - v1x);
+                emittedY = v1y + t * (v2y - v1y);
+            } else {
+                emittedX = v2x;
+                emittedY = v2y;
+            }
+        } else if (d1 < 0) {
+            double t = d1 / (d1 - d2);
+            emittedX = v1x + t * (v2x - v1x);
+            emittedY = v1y + t * (v2y - v1y);
+        } else {
+            return false;
+        }
+
+        // Příznak začátku nese jen první vrchol vyslaný hranou
+        emittedStart = pendingStart[s];
+        pendingStart[s] = false;
+        return true;
+    }
+
+    private void push(int s, double x, double y) {
+        if (stackStage.length == stackSize) {
+            int capacity = stackSize * 2;
+            stackStage = Arrays.copyOf(stackStage, capacity);
+            stackX = Arrays.copyOf(stackX, capacity);
+            stackY = Arrays.copyOf(stackY, capacity);
+            stackStart = Arrays.copyOf(stackStart, capacity);
+        }
+        stackStage[stackSize] = s;
+        stackX[stackSize] = x;
+        stackY[stackSize] = y;
+        stackStart[stackSize] = false;
+        stackSize++;
+    }
+
+    private void output(double x, double y, boolean start) {
+        if (outX.length == outCount) {
+            outX = Arrays.copyOf(outX, outCount * 2);
+            outY = Arrays.copyOf(outY, outCount * 2);
+        }
+        if (start) outStart = outCount;
+        outX[outCount] = x;
+        outY[outCount] = y;
+        outCount++;
+    }
+
+    private int finish() {
+        ensureResultCapacity(outCount);
+        for (int i = 0; i < outCount; i++) {
+            int j = outStart + i < outCount ? outStart + i : outStart + i - outCount;
+            resultX[i] = (int) Math.round(outX[j]);
+            resultY[i] = (int) Math.round(outY[j]);
+        }
+        return outCount;
+    }
+
+    private void ensureResultCapacity(int count) {
+        if (resultX.length >= count) return;
+
+        resultX = new int[Math.max(count, resultX.length * 2)];
+        resultY = new int[resultX.length];
+    }
+
+    private void growStages(int count) {
+        int capacity = Math.max(count, received.length * 2);
+        state = new double[capacity * STRIDE];
+        received = new int[capacity];
+        startAtClose = new boolean[capacity];
+        pendingStart = new boolean[capacity];
+    }
+}
@@ -1,34 +1,46 @@
 package controller;
 
 import clip.Clipper;
-import fill.ScanLine;
-import fill.SeedFill;
+import document.Document;
+import document.Layer;
+import index.PointGrid;
+import model.FillMode;
 import model.Line;
 import model.Point;
 import model.Polygon;
-import rasterize.LineRasterizer;
-import rasterize.LineRasterizerAA;
-import rasterize.LineRasterizerTrivial;
-import rasterize.Raster;
+import model.ScanLineData;
+import model.SeedFillData;
+import render.DirtyRegion;
+import render.FrameProfiler;
+import render.FrameSample;
+import render.LayerScene;
+import render.RenderThread;
+import render.Scene;
+import render.SceneBuilder;
 import view.Panel;
 import view.SettingsPanel;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 public class Controller2D {
     private final Panel panel;
-    private LineRasterizer lineRasterizer;
-    private final LineRasterizer rasterizerAA;
-    private final LineRasterizer rasterizerTrivial;
     private boolean aaEnabled = false;
 
-    private final ArrayList<Line> lines = new ArrayList<>();
-    private final ArrayList<Polygon> polygons = new ArrayList<>();
+    // Seznamy a damage patří aktivní vrstvě dokumentu, při přepnutí vrstvy se přenastaví (activateLayer)
+    private final Document document = new Document();
+    private ArrayList<Line> lines;
+    private ArrayList<Polygon> polygons;
+    private final PointGrid<Line> lineEndpoints = new PointGrid<>(PICK_RADIUS);
+    private final PointGrid<Polygon> polygonVertices = new PointGrid<>(PICK_RADIUS);
 
     private Point tempPoint;
     private Line tempLine;
@@ -39,7 +51,7 @@ public class Controller2D {
 
     private Polygon clippingPolygon = new Polygon();
     private Polygon subjectPolygon = new Polygon();
-    private final ArrayList<Polygon> clippedPolygons = new ArrayList<>();
+    private ArrayList<Polygon> clippedPolygons;
 
     private Color fillColor = Color.WHITE;
     private Color borderColor = Color.BLUE;
@@ -63,50 +75,27 @@ public class Controller2D {
 
     private final SettingsPanel settingsPanel;
 
-    private enum FillMode {
-        SCANLINE, SEED_BG, SEED_BORDER
-    }
-
-    private static class ScanLineData {
-        Polygon polygon;
-        int fillColor;
-        boolean usePattern;
-
-        public ScanLineData(Polygon polygon, int fillColor, boolean usePattern) {
-            this.polygon = polygon;
-            this.fillColor = fillColor;
-            this.usePattern = usePattern;
-        }
-    }
-
-    private static class SeedFillData {
-        Point startPoint;
-        FillMode mode;
-        int fillColor;
-        int borderColor;
-        boolean usePattern;
-
-        public SeedFillData(Point startPoint, FillMode mode, int fillColor, int borderColor, boolean usePattern) {
-            this.startPoint = startPoint;
-            this.mode = mode;
-            this.fillColor = fillColor;
-            this.borderColor = borderColor;
-            this.usePattern = usePattern;
-        }
-    }
+    private final RenderThread renderThread;
+    private final FrameScheduler frameScheduler;
+    private final FrameProfiler profiler = new FrameProfiler();
+    private DirtyRegion damage;
+    private boolean previewDirty;
+    private boolean layersChanged;
 
-    private final ArrayList<ScanLineData> filledPolygons = new ArrayList<>();
-    private final ArrayList<SeedFillData> seedFillDataList = new ArrayList<>();
+    private ArrayList<ScanLineData> filledPolygons;
+    private ArrayList<SeedFillData> seedFillDataList;
     private FillMode fillMode = FillMode.SCANLINE;
 
     public Controller2D(Panel panel) {
         this.panel = panel;
-        this.rasterizerAA = new LineRasterizerAA(panel.getRaster());
-        this.rasterizerTrivial = new LineRasterizerTrivial(panel.getRaster());
-
-        this.lineRasterizer = rasterizerTrivial;
+        this.renderThread = new RenderThread(panel.getBuffer(), panel::repaintFrame);
+        renderThread.setProfiler(profiler);
+        panel.setProfiler(profiler);
+        renderThread.start();
+        frameScheduler = new FrameScheduler(this::submitFrame);
 
         settingsPanel = new SettingsPanel(e -> applySettings());
+        activateLayer();
         initListeners();
         drawScene();
     }
@@ -132,8 +121,10 @@ public class Controller2D {
             aaEnabled = userAaSetting;
         }
 
-        lineRasterizer = aaEnabled ? rasterizerAA : rasterizerTrivial;
-
+        // Barvy obrysů a antialiasing platí pro všechny vrstvy
+        for (Layer layer : document.getLayers()) {
+            layer.getDamage().addAll();
+        }
         drawScene();
     }
 
@@ -170,8 +161,6 @@ public class Controller2D {
     }
 
     private boolean getClosestPoint(Point mouse) {
-        int best = PICK_RADIUS;
-
         selectedLine = null;
         selectedLineIndex = -1;
         selectedLineIsStart = false;
@@ -179,63 +168,28 @@ public class Controller2D {
         selectedPolygon = null;
         selectedPolygonIndex = -1;
 
-        for (int i = 0; i < lines.size(); i++) {
-            Line L = lines.get(i);
+        long best = (long) PICK_RADIUS * PICK_RADIUS;
 
-            int d1 = calculateDistance(mouse, L.p1());
-            if (d1 < best) {
-                best = d1;
-                selectedLine = L;
-                selectedLineIndex = i;
-                selectedLineIsStart = true;
-            }
-
-            int d2 = calculateDistance(mouse, L.p2());
-            if (d2 < best) {
-                best = d2;
-                selectedLine = L;
-                selectedLineIndex = i;
-                selectedLineIsStart = false;
-            }
+        PointGrid.Entry<Line> lineHit = lineEndpoints.nearest(mouse.getX(), mouse.getY(), best);
+        if (lineHit != null) {
+            best = distanceSq(mouse, lineHit.point());
+            selectedLine = lineHit.owner();
+            selectedLineIndex = lines.indexOf(selectedLine);
+            selectedLineIsStart = lineHit.point() == selectedLine.p1();
         }
 
-        for (Polygon poly : polygons) {
-            var pts = poly.points();
-            for (int i = 0; i < pts.size(); i++) {
-                int d = calculateDistance(mouse, pts.get(i));
-                if (d < best) {
-                    best = d;
-                    selectedPolygon = poly;
-                    selectedPolygonIndex = i;
-                }
-            }
+        PointGrid.Entry<Polygon> vertexHit = polygonVertices.nearest(mouse.getX(), mouse.getY(), best);
+        if (vertexHit != null) {
+            selectedPolygon = vertexHit.owner();
+            selectedPolygonIndex = selectedPolygon.points().indexOf(vertexHit.point());
         }
 
         return selectedLine != null || selectedPolygon != null;
     }
 
     public Polygon getClosestPolygon(Point mouse) {
-        if (polygons.isEmpty()) {
-            return null;
-        }
-
-        Polygon result = null;
-        int bestDist = Integer.MAX_VALUE;
-
-        for (Polygon polygon : polygons) {
-            var pts = polygon.points();
-            if (pts.isEmpty()) continue;
-
-            for (Point point : pts) {
-                int d = calculateDistance(mouse, point);
-                if (d < bestDist) {
-                    bestDist = d;
-                    result = polygon;
-                }
-            }
-        }
-
-        return result;
+        PointGrid.Entry<Polygon> hit = polygonVertices.nearest(mouse.getX(), mouse.getY(), Long.MAX_VALUE);
+        return hit != null ? hit.owner() : null;
     }
 
     private void deleteClosestPoint(Point mouse) {
@@ -245,15 +199,16 @@ public class Controller2D {
         if (selectedPolygon != null && selectedPolygonIndex >= 0) {
             var pts = selectedPolygon.points();
             if (selectedPolygonIndex < pts.size()) {
-                pts.remove(selectedPolygonIndex);
+                polygonVertices.remove(pts.remove(selectedPolygonIndex), selectedPolygon);
                 if (pts.size() < 2) {
+                    removePolygonVertices(selectedPolygon);
                     polygons.remove(selectedPolygon);
-                    filledPolygons.removeIf(d -> d.polygon.equals(selectedPolygon));
+                    filledPolygons.removeIf(d -> d.getPolygon().equals(selectedPolygon));
                 }
             }
         } else if (selectedLine != null && selectedLineIndex >= 0) {
             if (selectedLineIndex < lines.size()) {
-                lines.remove(selectedLineIndex);
+                removeLineEndpoints(lines.remove(selectedLineIndex));
             }
         }
 
@@ -285,10 +240,32 @@ public class Controller2D {
         }
     }
 
-    private int calculateDistance(Point a, Point b) {
-        int dx = a.getX() - b.getX();
-        int dy = a.getY() - b.getY();
-        return (int) Math.sqrt(dx * dx + dy * dy);
+    private static long distanceSq(Point a, Point b) {
+        long dx = a.getX() - b.getX();
+        long dy = a.getY() - b.getY();
+        return dx * dx + dy * dy;
+    }
+
+    private void addLineEndpoints(Line line) {
+        lineEndpoints.add(line.p1(), line);
+        lineEndpoints.add(line.p2(), line);
+    }
+
+    private void removeLineEndpoints(Line line) {
+        lineEndpoints.remove(line.p1(), line);
+        lineEndpoints.remove(line.p2(), line);
+    }
+
+    private void addPolygonVertices(Polygon polygon) {
+        for (Point point : polygon.points()) {
+            polygonVertices.add(point, polygon);
+        }
+    }
+
+    private void removePolygonVertices(Polygon polygon) {
+        for (Point point : polygon.points()) {
+            polygonVertices.remove(point, polygon);
+        }
     }
 
     private void performClipping() {
@@ -351,7 +328,7 @@ public class Controller2D {
                     if (fillMode == FillMode.SCANLINE) {
                         Polygon poly = getClosestPolygon(click);
                         if (poly != null) {
-                            boolean alreadyFilled = filledPolygons.stream().anyMatch(d -> d.polygon == poly);
+                            boolean alreadyFilled = filledPolygons.stream().anyMatch(d -> d.getPolygon() == poly);
                             if (!alreadyFilled) {
                                 filledPolygons.add(new ScanLineData(poly, fillC, usePattern));
                             }
@@ -398,10 +375,13 @@ public class Controller2D {
                     if (tempPoint != null) {
                         Point mouse = new Point(e.getX(), e.getY());
                         Point end = shiftPressed ? snapAxis(tempPoint, mouse) : mouse;
-                        lines.add(new Line(tempPoint, end, currentC1, currentC2));
+                        Line line = new Line(tempPoint, end, currentC1, currentC2);
+                        lines.add(line);
+                        addLineEndpoints(line);
+                        damage.add(line.getBounds());
                         tempPoint = null;
                         tempLine = null;
-                        drawScene();
+                        drawSceneDirty();
                     }
                 } else if (currentMode == Mode.POLYGON) {
                     Point mouse = new Point(e.getX(), e.getY());
@@ -437,6 +417,7 @@ public class Controller2D {
                                 finalRect.addPoint(p);
                             }
                             polygons.add(finalRect);
+                            addPolygonVertices(finalRect);
                         }
 
                         tempPolygon = new Polygon();
@@ -465,17 +446,25 @@ public class Controller2D {
                         if (selectedLineIsStart) p1 = new Point(x, y);
                         else p2 = new Point(x, y);
 
+                        damage.add(selectedLine.getBounds());
+                        removeLineEndpoints(selectedLine);
                         lines.set(selectedLineIndex, new Line(p1, p2, c1, c2));
                         selectedLine = lines.get(selectedLineIndex);
+                        addLineEndpoints(selectedLine);
+                        damage.add(selectedLine.getBounds());
                     }
 
                     if (selectedPolygon != null && selectedPolygonIndex >= 0) {
-                        selectedPolygon.points().set(selectedPolygonIndex, new Point(x, y));
+                        damage.add(selectedPolygon.getBounds());
+                        Point moved = new Point(x, y);
+                        polygonVertices.remove(selectedPolygon.points().set(selectedPolygonIndex, moved), selectedPolygon);
+                        polygonVertices.add(moved, selectedPolygon);
+                        damage.add(selectedPolygon.getBounds());
                     }
 
                     tempLine = null;
                     tempPolygonLine = null;
-                    drawScene();
+                    drawSceneDirty();
                     return;
                 }
 
@@ -516,7 +505,7 @@ public class Controller2D {
                         tempLine = null;
                     }
                 }
-                drawScene();
+                drawSceneDirty();
             }
 
             @Override
@@ -524,7 +513,7 @@ public class Controller2D {
                 if (currentMode == Mode.CLIP) {
                     tempLine = null;
                     tempPolygonLine = null;
-                    drawScene();
+                    drawSceneDirty();
                 } else if (currentMode == Mode.POLYGON && !tempPolygon.points().isEmpty()) {
                     Point last = tempPolygon.getLast();
                     Point first = tempPolygon.getPoint(0);
@@ -532,13 +521,13 @@ public class Controller2D {
                     Point end = shiftPressed ? snapAxis(last, mouse) : mouse;
                     tempLine = new Line(last, end, currentC1, currentC2);
                     tempPolygonLine = (tempPolygon.points().size() > 1) ? new Line(end, first, currentC1, currentC2) : null;
-                    drawScene();
+                    drawSceneDirty();
                 } else if (currentMode == Mode.RECT && tempPolygon.points().size() == 1) {
                     Point p1 = tempPolygon.getPoint(0);
                     Point mouse = new Point(e.getX(), e.getY());
                     Point end = shiftPressed ? snapAxis(p1, mouse) : mouse;
                     tempLine = new Line(p1, end, currentC1, currentC2);
-                    drawScene();
+                    drawSceneDirty();
                 } else if (currentMode == Mode.RECT && tempPolygon.points().size() == 2) {
                     Point p1 = tempPolygon.getPoint(0);
                     Point p2 = tempPolygon.getPoint(1);
@@ -554,7 +543,7 @@ public class Controller2D {
                         }
                     }
                     tempLine = null;
-                    drawScene();
+                    drawSceneDirty();
                 }
             }
         });
@@ -579,7 +568,7 @@ public class Controller2D {
                             clippingPolygon = new Polygon();
                             subjectPolygon = new Polygon();
                             clippedPolygons.clear();
-                            filledPolygons.removeIf(d -> clippedPolygons.contains(d.polygon));
+                            filledPolygons.removeIf(d -> clippedPolygons.contains(d.getPolygon()));
                         } else {
                             currentMode = Mode.LINES;
                         }
@@ -613,8 +602,10 @@ public class Controller2D {
                             }
                             tempPolygon = new Polygon();
                         } else {
-                            if (!tempPolygon.points().isEmpty() && tempPolygon.points().size() >= 3)
+                            if (!tempPolygon.points().isEmpty() && tempPolygon.points().size() >= 3) {
                                 polygons.add(tempPolygon);
+                                addPolygonVertices(tempPolygon);
+                            }
                             tempPolygon = new Polygon();
                             tempRectForDrawing = new Polygon();
                         }
@@ -622,6 +613,29 @@ public class Controller2D {
                         tempPolygonLine = null;
                         drawScene();
                     }
+                    case KeyEvent.VK_P -> exportProfile();
+                    case KeyEvent.VK_L -> {
+                        document.addLayer();
+                        switchLayer();
+                    }
+                    case KeyEvent.VK_OPEN_BRACKET -> {
+                        document.select(document.getActiveIndex() - 1);
+                        switchLayer();
+                    }
+                    case KeyEvent.VK_CLOSE_BRACKET -> {
+                        document.select(document.getActiveIndex() + 1);
+                        switchLayer();
+                    }
+                    case KeyEvent.VK_V -> {
+                        Layer layer = document.getActive();
+                        layer.setVisible(!layer.isVisible());
+                        layersChanged = true;
+                        updateLayerInfo();
+                        redraw();
+                    }
+                    case KeyEvent.VK_DELETE -> {
+                        if (document.removeActive()) switchLayer();
+                    }
                     case KeyEvent.VK_SHIFT -> {
                         shiftPressed = true;
                         drawScene();
@@ -639,113 +653,182 @@ public class Controller2D {
         });
     }
 
+    // Uloží měření posledních snímků do CSV v pracovním adresáři
+    private void exportProfile() {
+        Path path = Path.of("frame-profile-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".csv");
+        try {
+            int frames = profiler.exportCsv(path);
+            JOptionPane.showMessageDialog(panel, frames + " frames written to " + path.toAbsolutePath());
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(panel, "Cannot write " + path.toAbsolutePath() + ": " + e.getMessage(),
+                    "Frame profile", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    // Přepne editaci na aktivní vrstvu dokumentu
+    private void activateLayer() {
+        Layer layer = document.getActive();
+        lines = layer.getLines();
+        polygons = layer.getPolygons();
+        filledPolygons = layer.getFilledPolygons();
+        seedFillDataList = layer.getSeedFills();
+        clippedPolygons = layer.getClippedPolygons();
+        damage = layer.getDamage();
+
+        lineEndpoints.clear();
+        polygonVertices.clear();
+        lines.forEach(this::addLineEndpoints);
+        polygons.forEach(this::addPolygonVertices);
+
+        selectedLine = null;
+        selectedLineIndex = -1;
+        selectedPolygon = null;
+        selectedPolygonIndex = -1;
+        rmbDragging = false;
+        updateLayerInfo();
+    }
+
+    // Obrysy ořezávání se kreslí do aktivní vrstvy, při přepnutí je potřeba je z původní vrstvy smazat
+    private void switchLayer() {
+        if (currentMode == Mode.CLIP) damage.addAll();
+        activateLayer();
+        layersChanged = true;
+        drawScene();
+    }
+
+    private void updateLayerInfo() {
+        Layer layer = document.getActive();
+        panel.setLayerInfo(layer.getName() + " (" + (document.getActiveIndex() + 1) + "/" + document.size() + ")"
+                + (layer.isVisible() ? "" : " hidden"));
+    }
+
     private void drawScene() {
-        panel.getRaster().clear();
-        Raster raster = panel.getRaster();
+        damage.addAll();
+        previewDirty = true;
+        redraw();
+    }
 
-        Color clipColor = new Color(255, 0, 0, 150);
-        Color subColor = new Color(0, 255, 0, 150);
+    // Změnil se jen náhled (a případně oblasti, které volající přidal do damage)
+    private void drawSceneDirty() {
+        previewDirty = true;
+        redraw();
+    }
+
+    // Vstup jen poznamená změnu, scéna a náhled se obnoví nejvýš jednou za snímek displeje
+    private void redraw() {
+        if (previewDirty || hasLayerChanges()) frameScheduler.request();
+    }
 
-        for (Polygon polygon : polygons) {
-            int polySize = polygon.points().size();
-            for (int i = 1; i <= polySize; i++) {
-                Point a = polygon.getPoint((i - 1) % polySize);
-                Point b = polygon.getPoint(i % polySize);
-                lineRasterizer.rasterize(new Line(a, b, currentC1, currentC2));
+    // Náhled se kreslí hned do vrstvy v Panel; statická scéna se předá RenderThread, jen když nekreslí předchozí
+    // snímek, jinak poškozené oblasti počkají na další tik (pomalá scéna tak náhled nezdržuje)
+    // Čas náhledu se předá RenderThread do měření snímku; když se scéna v tomto tiku neodesílá, zapíše se
+    // samostatný záznam jen s náhledem
+    private void submitFrame() {
+        long previewNanos = 0;
+        long previewPixels = 0;
+        if (previewDirty) {
+            previewDirty = false;
+            long start = System.nanoTime();
+            Rectangle changed = panel.getPreview().update(buildPreview());
+            previewNanos = System.nanoTime() - start;
+            if (changed != null) {
+                previewPixels = (long) changed.width * changed.height;
+                panel.repaintFrame(changed);
             }
         }
 
-        if (currentMode != Mode.CLIP) {
-            int tempPolySize = tempPolygon.points().size();
-            for (int i = 1; i < tempPolySize; i++) {
-                Point a = tempPolygon.getPoint(i - 1);
-                Point b = tempPolygon.getPoint(i);
-                lineRasterizer.rasterize(new Line(a, b, currentC1, currentC2));
-            }
+        if (!hasLayerChanges() || renderThread.isBusy()) {
+            if (previewNanos > 0) profiler.record(FrameSample.preview(previewNanos, previewPixels));
+            if (hasLayerChanges()) frameScheduler.request();
+            return;
         }
 
-        if (!tempRectForDrawing.points().isEmpty()) {
-            int rectSize = tempRectForDrawing.points().size();
-            for (int i = 1; i <= rectSize; i++) {
-                Point a = tempRectForDrawing.getPoint((i - 1) % rectSize);
-                Point b = tempRectForDrawing.getPoint(i % rectSize);
-                lineRasterizer.rasterize(new Line(a, b, currentC1, currentC2));
+        // Scéna se sestaví jen pro poškozené viditelné vrstvy, ostatní RenderThread složí z uložených rastrů;
+        // skrytá vrstva si poškození ponechá do doby, než se znovu zobrazí
+        List<LayerScene> scenes = new ArrayList<>(document.size());
+        for (Layer layer : document.getLayers()) {
+            DirtyRegion layerDamage = layer.getDamage();
+            if (!layer.isVisible() || layerDamage.isEmpty()) {
+                scenes.add(new LayerScene(layer.getId(), layer.isVisible(), null, null));
+                continue;
             }
+
+            Rectangle dirty = layerDamage.isFull() ? null : layerDamage.getBounds();
+            layerDamage.clear();
+            scenes.add(new LayerScene(layer.getId(), true, buildScene(layer), dirty));
         }
+        layersChanged = false;
+        renderThread.submit(scenes, previewNanos);
+    }
+
+    private boolean hasLayerChanges() {
+        if (layersChanged) return true;
+        for (Layer layer : document.getLayers()) {
+            if (layer.isVisible() && !layer.getDamage().isEmpty()) return true;
+        }
+        return false;
+    }
+
+    // Rozpracovaná geometrie, kreslí se do vrstvy náhledu nad scénou
+    private Scene buildPreview() {
+        SceneBuilder builder = new SceneBuilder();
 
         if (currentMode != Mode.CLIP) {
-            if (tempLine != null) lineRasterizer.rasterize(tempLine);
-            if (tempPolygonLine != null) lineRasterizer.rasterize(tempPolygonLine);
+            builder.addOutline(tempPolygon, currentC1, currentC2, false);
         }
 
-        for (Line line : lines) lineRasterizer.rasterize(line);
+        builder.addOutline(tempRectForDrawing, currentC1, currentC2, true);
 
-        if (currentMode == Mode.CLIP) {
-            int clipSize = clippingPolygon.points().size();
-            for (int i = 1; i <= clipSize; i++) {
-                Point a = clippingPolygon.getPoint((i - 1) % clipSize);
-                Point b = clippingPolygon.getPoint(i % clipSize);
-                lineRasterizer.rasterize(new Line(a, b, clipColor, clipColor));
-            }
+        if (currentMode != Mode.CLIP) {
+            if (tempLine != null) builder.addLine(tempLine);
+            if (tempPolygonLine != null) builder.addLine(tempPolygonLine);
+        }
 
-            int subSize = subjectPolygon.points().size();
-            for (int i = 1; i <= subSize; i++) {
-                Point a = subjectPolygon.getPoint((i - 1) % subSize);
-                Point b = subjectPolygon.getPoint(i % subSize);
-                lineRasterizer.rasterize(new Line(a, b, subColor, subColor));
-            }
+        return builder.build(aaEnabled);
+    }
+
+    private Scene buildScene(Layer layer) {
+        SceneBuilder builder = new SceneBuilder();
+
+        Color clipColor = new Color(255, 0, 0, 150);
+        Color subColor = new Color(0, 255, 0, 150);
+
+        for (Polygon polygon : layer.getPolygons()) {
+            builder.addOutline(polygon, currentC1, currentC2, true);
         }
 
-        for (ScanLineData data : filledPolygons) {
-            int polyFillC = data.fillColor;
-            boolean usePattern = data.usePattern;
+        builder.addLines(layer.getLines());
 
-            ScanLine scanLine = new ScanLine(raster, lineRasterizer, data.polygon, polyFillC, usePattern);
-            scanLine.fill();
+        if (currentMode == Mode.CLIP && layer == document.getActive()) {
+            builder.addOutline(clippingPolygon, clipColor, clipColor, true);
+            builder.addOutline(subjectPolygon, subColor, subColor, true);
         }
 
-        for (SeedFillData data : seedFillDataList) {
-            int startX = data.startPoint.getX();
-            int startY = data.startPoint.getY();
-
-            int storedFillC = data.fillColor;
-            int storedBorderC = data.borderColor;
-            boolean usePattern = data.usePattern;
-
-            switch (data.mode) {
-                case SEED_BG:
-                    SeedFill seedFillBg = new SeedFill(raster, storedFillC, startX, startY, usePattern);
-                    seedFillBg.fill();
-                    break;
-                case SEED_BORDER:
-                    SeedFill seedFillBorder = new SeedFill(raster, storedFillC, storedBorderC, startX, startY, usePattern);
-                    seedFillBorder.fill();
-                    break;
-                case SCANLINE:
-                    break;
-            }
+        for (ScanLineData data : layer.getFilledPolygons()) {
+            builder.addScanLineFill(data);
+        }
+        for (SeedFillData data : layer.getSeedFills()) {
+            builder.addSeedFill(data);
         }
 
-        panel.repaint();
+        return builder.build(aaEnabled);
     }
 
+    // Vymaže aktivní vrstvu
     private void clearScene() {
-        panel.getRaster().clear();
-        lines.clear();
-        polygons.clear();
+        document.getActive().clear();
+        lineEndpoints.clear();
+        polygonVertices.clear();
         tempPolygon = new Polygon();
         tempRectForDrawing = new Polygon();
         tempPoint = null;
         tempLine = null;
         tempPolygonLine = null;
         shiftPressed = false;
-        filledPolygons.clear();
-        seedFillDataList.clear();
 
         clippingPolygon = new Polygon();
         subjectPolygon = new Polygon();
-        clippedPolygons.clear();
 
-        panel.repaint();
+        drawScene();
     }
 }
\ No newline at end of file
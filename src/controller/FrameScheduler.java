@@ -0,0 +1,57 @@
+package controller;
+
+import javax.swing.*;
+import java.awt.*;
+
+// Omezení počtu snímků na frekvenci displeje
+// Postup:
+// 1 - Vstup (pohyb myši, klávesy) jen zavolá request(), poškozené oblasti se mezitím sčítají v DirtyRegion
+// 2 - javax.swing.Timer tiká na vlákně Swing v intervalu snímku displeje; při tiku se požadavek vyřídí
+//     jedním voláním frame, nezávisle na tom, kolik událostí přišlo
+// 3 - frame může požadavek obnovit (např. když RenderThread ještě kreslí předchozí snímek statické scény),
+//     vyřídí se pak při dalším tiku; náhled se tak dál obnovuje s frekvencí displeje, i když je scéna pomalá.
+//     Odložení statické scény, dokud RenderThread kreslí, je jediné přizpůsobení pomalým snímkům:
+//     interval časovače se podle délky snímků neprodlužuje
+// 4 - Bez požadavků se časovač zastaví; první požadavek po klidu se vyřídí hned (počáteční zpoždění 0)
+
+public class FrameScheduler {
+    private static final int DEFAULT_REFRESH_RATE = 60;
+
+    private final Runnable frame;
+    private final Timer timer;
+    private boolean requested;
+
+    public FrameScheduler(Runnable frame) {
+        this(frame, displayRefreshRate());
+    }
+
+    public FrameScheduler(Runnable frame, int framesPerSecond) {
+        this.frame = frame;
+        this.timer = new Timer(Math.max(1, 1000 / framesPerSecond), e -> tick());
+        timer.setInitialDelay(0);
+        timer.setCoalesce(true);
+    }
+
+    // Volá se na vlákně Swing
+    public void request() {
+        requested = true;
+        if (!timer.isRunning()) timer.start();
+    }
+
+    private void tick() {
+        if (!requested) {
+            timer.stop();
+            return;
+        }
+
+        requested = false;
+        frame.run();
+    }
+
+    private static int displayRefreshRate() {
+        if (GraphicsEnvironment.isHeadless()) return DEFAULT_REFRESH_RATE;
+
+        int rate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode().getRefreshRate();
+        return rate == DisplayMode.REFRESH_RATE_UNKNOWN ? DEFAULT_REFRESH_RATE : rate;
+    }
+}
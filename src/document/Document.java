@@ -0,0 +1,54 @@
+package document;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Dokument složený z vrstev; vrstvy jsou v pořadí skládání (index 0 je vespod), úpravy jdou do aktivní vrstvy
+public class Document {
+    private final ArrayList<Layer> layers = new ArrayList<>();
+    private int activeIndex;
+    private int nextId = 1;
+
+    public Document() {
+        addLayer();
+    }
+
+    // Nová vrstva se vloží nad aktivní a stane se aktivní
+    public Layer addLayer() {
+        Layer layer = new Layer(nextId, "Layer " + nextId);
+        nextId++;
+        activeIndex = layers.isEmpty() ? 0 : activeIndex + 1;
+        layers.add(activeIndex, layer);
+        return layer;
+    }
+
+    // Poslední vrstvu odebrat nejde; aktivní se stane vrstva pod odebranou
+    public boolean removeActive() {
+        if (layers.size() < 2) return false;
+
+        layers.remove(activeIndex);
+        activeIndex = Math.max(0, activeIndex - 1);
+        return true;
+    }
+
+    public void select(int index) {
+        activeIndex = Math.floorMod(index, layers.size());
+    }
+
+    public List<Layer> getLayers() {
+        return Collections.unmodifiableList(layers);
+    }
+
+    public Layer getActive() {
+        return layers.get(activeIndex);
+    }
+
+    public int getActiveIndex() {
+        return activeIndex;
+    }
+
+    public int size() {
+        return layers.size();
+    }
+}
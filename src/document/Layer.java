@@ -0,0 +1,50 @@
+package document;
+
+import model.Line;
+import model.Polygon;
+import model.ScanLineData;
+import model.SeedFillData;
+import render.DirtyRegion;
+
+import java.util.ArrayList;
+
+// Vrstva dokumentu: vlastní primitiva a poškozená oblast jejího rastru (prázdná = rastr je aktuální)
+public class Layer {
+    private final int id;
+    private final String name;
+    private boolean visible = true;
+
+    private final ArrayList<Line> lines = new ArrayList<>();
+    private final ArrayList<Polygon> polygons = new ArrayList<>();
+    private final ArrayList<ScanLineData> filledPolygons = new ArrayList<>();
+    private final ArrayList<SeedFillData> seedFills = new ArrayList<>();
+    private final ArrayList<Polygon> clippedPolygons = new ArrayList<>();
+    private final DirtyRegion damage = new DirtyRegion(1);
+
+    public Layer(int id, String name) {
+        this.id = id;
+        this.name = name;
+        damage.addAll();
+    }
+
+    public void clear() {
+        lines.clear();
+        polygons.clear();
+        filledPolygons.clear();
+        seedFills.clear();
+        clippedPolygons.clear();
+        damage.addAll();
+    }
+
+    public int getId() { return id; }
+    public String getName() { return name; }
+    public boolean isVisible() { return visible; }
+    public void setVisible(boolean visible) { this.visible = visible; }
+
+    public ArrayList<Line> getLines() { return lines; }
+    public ArrayList<Polygon> getPolygons() { return polygons; }
+    public ArrayList<ScanLineData> getFilledPolygons() { return filledPolygons; }
+    public ArrayList<SeedFillData> getSeedFills() { return seedFills; }
+    public ArrayList<Polygon> getClippedPolygons() { return clippedPolygons; }
+    public DirtyRegion getDamage() { return damage; }
+}
@@ -0,0 +1,166 @@
+package fill;
+
+import model.Point;
+import model.Polygon;
+
+import java.util.Arrays;
+
+// Tabulka hran pro ScanLine
+// Postup algoritmu:
+// 1 - Z polygonu vezme všechny nevodorovné hrany, orientuje je shora dolů a seřadí podle horního y
+// 2 - Pro každou hranu si uloží x na horním řádku a přírůstek x na jeden řádek v pevné řádové čárce 32.32
+// 3 - Při průchodu řádky přidává do tabulky aktivních hran ty, které na řádku začínají, a odebírá ty, které končí
+// 4 - Aktivním hranám jen přičte přírůstek a udržuje je seřazené podle x vkládáním (mezi řádky se pořadí téměř nemění)
+// 5 - Průchod lze začít na libovolném řádku, x hrany se pak dopočítá přímo, takže pásy řádků jdou projít nezávisle
+
+public class EdgeTable {
+    public interface SpanConsumer {
+        void span(int y, int x1, int x2);
+    }
+
+    private static final long HALF = 1L << 31;
+
+    private int size;
+    private int[] yMin = new int[16];
+    private int[] yMax = new int[16];
+    private long[] xStart = new long[16];
+    private long[] slope = new long[16];
+    private long[] sortKeys = new long[16];
+
+    private int[] active = new int[16];
+    private long[] activeX = new long[16];
+
+    private int minY;
+    private int maxY;
+
+    public void build(Polygon polygon) {
+        int count = polygon.points().size();
+        int[] xs = new int[count];
+        int[] ys = new int[count];
+        for (int i = 0; i < count; i++) {
+            Point p = polygon.getPoint(i);
+            xs[i] = p.getX();
+            ys[i] = p.getY();
+        }
+        build(xs, ys, 0, count);
+    }
+
+    // Polygon zadaný vrcholy xs[offset .. offset + count - 1], ys[...] (např. přímo z GeometryStore)
+    public void build(int[] xs, int[] ys, int offset, int count) {
+        ensureCapacity(count);
+        size = 0;
+        minY = Integer.MAX_VALUE;
+        maxY = Integer.MIN_VALUE;
+
+        for (int i = 0; i < count; i++) {
+            int j = (i + 1 == count) ? 0 : i + 1;
+            int ax = xs[offset + i], ay = ys[offset + i];
+            int bx = xs[offset + j], by = ys[offset + j];
+            if (ay == by) continue;
+
+            if (ay > by) {
+                int tx = ax, ty = ay;
+                ax = bx;
+                ay = by;
+                bx = tx;
+                by = ty;
+            }
+
+            int dy = by - ay;
+            long dx = (long) (bx - ax) << 32;
+
+            sortKeys[size] = ((long) ay << 32) | i;
+            yMin[i] = ay;
+            yMax[i] = by;
+            xStart[i] = ((long) ax << 32) + HALF;
+            slope[i] = -Math.floorDiv(-dx, dy);
+            size++;
+
+            minY = Math.min(minY, ay);
+            maxY = Math.max(maxY, by);
+        }
+
+        Arrays.sort(sortKeys, 0, size);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getMinY() {
+        return minY;
+    }
+
+    public int getMaxY() {
+        return maxY;
+    }
+
+    public void scan(int yFrom, int yTo, SpanConsumer consumer) {
+        scan(yFrom, yTo, consumer, active, activeX);
+    }
+
+    public void scanBand(int yFrom, int yTo, SpanConsumer consumer) {
+        scan(yFrom, yTo, consumer, new int[size], new long[size]);
+    }
+
+    private void scan(int yFrom, int yTo, SpanConsumer consumer, int[] active, long[] activeX) {
+        if (size == 0) return;
+
+        yFrom = Math.max(yFrom, minY);
+        yTo = Math.min(yTo, maxY);
+
+        int next = 0;
+        int activeCount = 0;
+
+        for (int y = yFrom; y < yTo; y++) {
+            while (next < size) {
+                int edge = (int) sortKeys[next];
+                if (yMin[edge] > y) break;
+                next++;
+                if (yMax[edge] <= y) continue;
+
+                active[activeCount] = edge;
+                activeX[activeCount] = xStart[edge] + (y - yMin[edge]) * slope[edge];
+                activeCount++;
+            }
+
+            int kept = 0;
+            for (int i = 0; i < activeCount; i++) {
+                int edge = active[i];
+                if (yMax[edge] <= y) continue;
+
+                long x = activeX[i];
+                int j = kept++;
+                while (j > 0 && activeX[j - 1] > x) {
+                    active[j] = active[j - 1];
+                    activeX[j] = activeX[j - 1];
+                    j--;
+                }
+                active[j] = edge;
+                activeX[j] = x;
+            }
+            activeCount = kept;
+
+            for (int i = 0; i + 1 < activeCount; i += 2) {
+                consumer.span(y, (int) (activeX[i] >> 32), (int) (activeX[i + 1] >> 32));
+            }
+
+            for (int i = 0; i < activeCount; i++) {
+                activeX[i] += slope[active[i]];
+            }
+        }
+    }
+
+    private void ensureCapacity(int count) {
+        if (yMin.length >= count) return;
+
+        int capacity = Math.max(count, yMin.length * 2);
+        yMin = new int[capacity];
+        yMax = new int[capacity];
+        xStart = new long[capacity];
+        slope = new long[capacity];
+        sortKeys = new long[capacity];
+        active = new int[capacity];
+        activeX = new long[capacity];
+    }
+}
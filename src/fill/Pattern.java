@@ -0,0 +1,14 @@
+package fill;
+
+import rasterize.Raster;
+
+// Vzor výplně: barva každého pixelu závisí jen na jeho souřadnicích
+public interface Pattern {
+    int getColor(int x, int y);
+
+    // Vybarví úsek x1 .. x2 na řádku y vzorem
+    void fillSpan(Raster raster, int y, int x1, int x2);
+
+    // Obsahuje vzor danou barvu (SeedFill podle toho pozná pixely, které už vzorem vybarvil)
+    boolean contains(int color);
+}
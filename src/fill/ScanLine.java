@@ -1,104 +1,200 @@
 package fill;
 
-import model.Edge;
+import jfr.ScanLineFillEvent;
 import model.Point;
 import model.Polygon;
 import rasterize.LineRasterizer;
 import rasterize.Raster;
 
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
 
 public class ScanLine implements Filler {
+    public static final int DEFAULT_MIN_BAND_HEIGHT = 64;
+
     private final Raster raster;
     private final LineRasterizer lineRasterizer;
-    private final Polygon polygon;
+    private final int[] xs;
+    private final int[] ys;
+    private final int offset;
+    private final int count;
     private final int fillColor;
-    private final boolean usePattern;
+    private Pattern pattern;
+    private final EdgeTable edgeTable;
+    private boolean parallel = false;
+    private int minBandHeight = DEFAULT_MIN_BAND_HEIGHT;
 
     public ScanLine(Raster raster, LineRasterizer lineRasterizer, Polygon polygon, int fillColor, boolean usePattern) {
+        this(raster, lineRasterizer, polygon, fillColor, usePattern, new EdgeTable());
+    }
+
+    public ScanLine(Raster raster, LineRasterizer lineRasterizer, Polygon polygon, int fillColor, boolean usePattern, EdgeTable edgeTable) {
+        this(raster, lineRasterizer, xs(polygon), ys(polygon), 0, polygon.points().size(), fillColor, usePattern, edgeTable);
+    }
+
+    // Polygon zadaný vrcholy xs[offset .. offset + count - 1], ys[...], pole se nekopírují
+    public ScanLine(Raster raster, LineRasterizer lineRasterizer, int[] xs, int[] ys, int offset, int count,
+                    int fillColor, boolean usePattern, EdgeTable edgeTable) {
         this.raster = raster;
         this.lineRasterizer = lineRasterizer;
-        this.polygon = polygon;
+        this.xs = xs;
+        this.ys = ys;
+        this.offset = offset;
+        this.count = count;
         this.fillColor = fillColor;
-        this.usePattern = usePattern;
+        this.pattern = usePattern ? defaultPattern(fillColor) : null;
+        this.edgeTable = Objects.requireNonNull(edgeTable, "edgeTable");
     }
 
     @Override
     public void fill() {
-        ArrayList<Edge> edges = new ArrayList<>();
+        ScanLineFillEvent event = new ScanLineFillEvent();
+        event.begin();
+        SpanCounter counter = event.isEnabled() ? new SpanCounter() : null;
+        EdgeTable.SpanConsumer consumer = counter == null ? this::fillSpan : (y, x1, x2) -> {
+            counter.add(x1, x2);
+            fillSpan(y, x1, x2);
+        };
+
+        drawOutline();
+
+        edgeTable.build(xs, ys, offset, count);
+        if (!edgeTable.isEmpty()) {
+            int yMin = Math.max(edgeTable.getMinY(), 0);
+            int yMax = Math.min(edgeTable.getMaxY(), raster.getHeight());
+
+            if (parallel && yMax - yMin >= 2 * minBandHeight) {
+                ForkJoinPool.commonPool().invoke(new BandTask(edgeTable, yMin, yMax, minBandHeight, consumer));
+            } else {
+                edgeTable.scan(yMin, yMax, consumer);
+            }
+        }
 
-        for (int i = 0; i < polygon.points().size(); i++) {
-            int indexA = i;
-            int indexB = (i + 1) % polygon.points().size();
+        event.end();
+        if (counter != null && event.shouldCommit()) {
+            event.minX = event.minY = Integer.MAX_VALUE;
+            event.maxX = event.maxY = Integer.MIN_VALUE;
+            for (int v = offset; v < offset + count; v++) {
+                event.minX = Math.min(event.minX, xs[v]);
+                event.minY = Math.min(event.minY, ys[v]);
+                event.maxX = Math.max(event.maxX, xs[v]);
+                event.maxY = Math.max(event.maxY, ys[v]);
+            }
+            event.index = -1;
+            event.vertices = count;
+            event.spans = (int) counter.spans.sum();
+            event.pixels = counter.pixels.sum();
+            event.pattern = pattern != null;
+            event.parallel = parallel;
+            event.commit();
+        }
+    }
 
-            Point pA = polygon.getPoint(indexA);
-            Point pB = polygon.getPoint(indexB);
+    // Počítá vybarvené úseky a pixely pro ScanLineFillEvent, úseky mohou přicházet z více vláken
+    private final class SpanCounter {
+        final LongAdder spans = new LongAdder();
+        final LongAdder pixels = new LongAdder();
 
-            Edge edge = new Edge(pA, pB);
+        void add(int x1, int x2) {
+            spans.increment();
+            pixels.add(Math.max(0, Math.min(x2, raster.getWidth() - 1) - Math.max(x1, 0) + 1));
+        }
+    }
 
-            if (!edge.isHorizontal()) {
-                edge.orientate();
-                edges.add(edge);
+    // Místo průchodu tabulkou hran přehraje dříve spočítané úseky polygonu, které padnou do řádků yFrom .. yTo - 1
+    // (pattern == null = plná barva); obrys se kreslí zvlášť přes drawOutline
+    public static void replaySpans(Raster raster, SpanList spans, int yFrom, int yTo, int fillColor, Pattern pattern) {
+        for (int i = spans.firstAtOrAfter(yFrom); i < spans.size() && spans.getY(i) < yTo; i++) {
+            if (pattern != null) {
+                pattern.fillSpan(raster, spans.getY(i), spans.getX1(i), spans.getX2(i));
+            } else {
+                raster.fillSpan(spans.getY(i), spans.getX1(i), spans.getX2(i), fillColor);
             }
         }
+    }
 
-        for (Edge e : edges) {
-            lineRasterizer.rasterize(e.getP1().getX(), e.getP1().getY(), e.getP2().getX(), e.getP2().getY(), new Color(fillColor), new Color(fillColor));
+    // Nevodorovné hrany polygonu barvou výplně, stejně jako je kreslí fill
+    public static void drawOutline(LineRasterizer lineRasterizer, int[] xs, int[] ys, int offset, int count, int fillColor) {
+        for (int i = 0; i < count; i++) {
+            int a = offset + i;
+            int b = offset + (i + 1) % count;
+
+            if (ys[a] != ys[b]) {
+                lineRasterizer.rasterize(xs[a], ys[a], xs[b], ys[b], fillColor, fillColor);
+            }
         }
+    }
 
-        if (edges.isEmpty()) return;
+    private void drawOutline() {
+        drawOutline(lineRasterizer, xs, ys, offset, count, fillColor);
+    }
 
-        int yMin = edges.get(0).getP1().getY();
-        int yMax = edges.get(0).getP1().getY();
+    private static int[] xs(Polygon polygon) {
+        return polygon.points().stream().mapToInt(Point::getX).toArray();
+    }
 
-        for (Edge e : edges) {
-            yMin = Math.min(yMin, Math.min(e.getP1().getY(), e.getP2().getY()));
-            yMax = Math.max(yMax, Math.max(e.getP1().getY(), e.getP2().getY()));
-        }
+    private static int[] ys(Polygon polygon) {
+        return polygon.points().stream().mapToInt(Point::getY).toArray();
+    }
+
+    // Výchozí vzor (usePattern): šachovnice 8 px z barvy výplně a černé
+    public static Pattern defaultPattern(int fillColor) {
+        return TilePattern.checker(8, fillColor, Color.BLACK.getRGB());
+    }
 
-        for (int y = yMin; y <= yMax; y++) {
-            ArrayList<Integer> intersections = new ArrayList<>();
+    // Vlastní vzor místo výchozího, null = plná barva
+    public void setPattern(Pattern pattern) {
+        this.pattern = pattern;
+    }
 
-            for (Edge drawEdge : edges) {
-                if (drawEdge.isIntersecting(y) && y != drawEdge.getP2().getY()) {
-                    int x = drawEdge.getIntersection(y);
-                    intersections.add(x);
-                }
-            }
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
 
-            intersections.sort(Comparator.naturalOrder());
-
-            for (int x = 0; x + 1 < intersections.size(); x += 2) {
-                int x1 = intersections.get(x);
-                int x2 = intersections.get(x + 1);
-
-                if (usePattern) {
-                    int patternSize = 8;
-                    int colorA = fillColor;
-                    int colorB = Color.BLACK.getRGB();
-
-                    for (int currentX = x1; currentX <= x2; currentX++) {
-                        int tileX = currentX / patternSize;
-                        int tileY = y / patternSize;
-
-                        int patternColor;
-                        if ((tileX + tileY) % 2 == 0) {
-                            patternColor = colorA;
-                        } else {
-                            patternColor = colorB;
-                        }
-
-                        raster.setPixel(currentX, y, patternColor);
-                    }
-                } else {
-                    int colorToSet = fillColor;
-                    for (int currentX = x1; currentX <= x2; currentX++) {
-                        raster.setPixel(currentX, y, colorToSet);
-                    }
-                }
+    public void setMinBandHeight(int minBandHeight) {
+        this.minBandHeight = Math.max(1, minBandHeight);
+    }
+
+    // Pás řádků yFrom .. yTo - 1; tabulka hran už je sestavená a pásy ji jen čtou
+    // (RecursiveAction je Serializable, úlohy se ale nikdy neserializují, proto jsou pole transient)
+    private static final class BandTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient EdgeTable edgeTable;
+        private final int yFrom;
+        private final int yTo;
+        private final int minBandHeight;
+        private final transient EdgeTable.SpanConsumer consumer;
+
+        BandTask(EdgeTable edgeTable, int yFrom, int yTo, int minBandHeight, EdgeTable.SpanConsumer consumer) {
+            this.edgeTable = edgeTable;
+            this.yFrom = yFrom;
+            this.yTo = yTo;
+            this.minBandHeight = minBandHeight;
+            this.consumer = consumer;
+        }
+
+        @Override
+        protected void compute() {
+            if (yTo - yFrom < 2 * minBandHeight) {
+                edgeTable.scanBand(yFrom, yTo, consumer);
+                return;
             }
+
+            int yMid = (yFrom + yTo) >>> 1;
+            invokeAll(new BandTask(edgeTable, yFrom, yMid, minBandHeight, consumer),
+                    new BandTask(edgeTable, yMid, yTo, minBandHeight, consumer));
+        }
+    }
+
+    private void fillSpan(int y, int x1, int x2) {
+        if (pattern != null) {
+            pattern.fillSpan(raster, y, x1, x2);
+        } else {
+            raster.fillSpan(y, x1, x2, fillColor);
         }
     }
-}
\ No newline at end of file
+}
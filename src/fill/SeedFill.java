@@ -1,9 +1,11 @@
 package fill;
 
+import jfr.SeedFillEvent;
 import rasterize.Raster;
 
 import java.awt.*;
-import java.util.Stack;
+import java.util.Arrays;
+import java.util.BitSet;
 
 public class SeedFill implements Filler {
     private final Raster raster;
@@ -13,16 +15,28 @@ public class SeedFill implements Filler {
     private final int startX;
     private final int startY;
     private final boolean useBorder;
-    private final boolean usePattern;
+    private Pattern pattern;
+
+    private int[] stack = new int[64];
+    private int stackSize;
+    private int maxStackSize;
+    private int paintedSpans;
+    private long paintedPixels;
+    private int paintedMinX, paintedMinY, paintedMaxX, paintedMaxY;
+    private long traceFrame;
+    private int traceIndex = -1;
+    private BitSet visited;
+    private SpanList recorder;
 
     public SeedFill(Raster raster, int fillColor, int startX, int startY, boolean usePattern) {
         this.raster = raster;
         this.fillColor = fillColor;
         this.startX = startX;
         this.startY = startY;
-        this.bgColor = raster.getPixel(startX, startY);
+        // Start mimo rastr nic nevybarví (spanFill ho odmítne), barva pozadí se pak nečte
+        this.bgColor = isInBounds(startX, startY) ? raster.getPixel(startX, startY) : 0;
         this.useBorder = false;
-        this.usePattern = usePattern;
+        this.pattern = usePattern ? defaultPattern(fillColor) : null;
     }
 
     public SeedFill(Raster raster, int fillColor, int borderColor, int startX, int startY, boolean usePattern) {
@@ -34,83 +48,183 @@ public class SeedFill implements Filler {
         this.useBorder = true;
 
         this.bgColor = 0;
-        this.usePattern = usePattern;
+        this.pattern = usePattern ? defaultPattern(fillColor) : null;
     }
 
     @Override
     public void fill() {
+        SeedFillEvent event = new SeedFillEvent();
+        event.begin();
+        resetCounters();
+
         if (useBorder) {
             seedFillByBorder(startX, startY);
         } else {
             seedFillByBg(startX, startY);
         }
+
+        commit(event, false);
     }
 
-    private int getPatternColor(int x, int y) {
-        int patternSize = 8;
-        int colorA = fillColor;
-        int colorB = Color.CYAN.getRGB();
+    // Každý vybarvený úsek se navíc zapíše do spans, výsledek vyplnění lze potom přehrát přes paintSpans
+    public void setRecorder(SpanList spans) {
+        this.recorder = spans;
+    }
 
-        int tileX = x / patternSize;
-        int tileY = y / patternSize;
+    // Přehraje dříve zaznamenané úseky stejně jako by je vybarvilo vyplnění (včetně vzoru)
+    public void paintSpans(SpanList spans) {
+        SeedFillEvent event = new SeedFillEvent();
+        event.begin();
+        resetCounters();
 
-        if ((tileX + tileY) % 2 == 0) {
-            return colorA;
-        } else {
-            return colorB;
+        for (int i = 0; i < spans.size(); i++) {
+            paintSpan(spans.getY(i), spans.getX1(i), spans.getX2(i));
         }
+
+        commit(event, true);
+    }
+
+    // Snímek a index seed fill ve scéně, zapíšou se do SeedFillEvent
+    public void setTrace(long frame, int index) {
+        this.traceFrame = frame;
+        this.traceIndex = index;
+    }
+
+    private void resetCounters() {
+        paintedSpans = 0;
+        paintedPixels = 0;
+        maxStackSize = 0;
+        paintedMinX = paintedMaxX = startX;
+        paintedMinY = paintedMaxY = startY;
+    }
+
+    private void commit(SeedFillEvent event, boolean replayed) {
+        event.end();
+        if (!event.shouldCommit()) return;
+
+        event.frame = traceFrame;
+        event.index = traceIndex;
+        event.minX = paintedMinX;
+        event.minY = paintedMinY;
+        event.maxX = paintedMaxX;
+        event.maxY = paintedMaxY;
+        event.startX = startX;
+        event.startY = startY;
+        event.border = useBorder;
+        event.pattern = pattern != null;
+        event.replayed = replayed;
+        event.spans = paintedSpans;
+        event.pixels = paintedPixels;
+        event.maxStackDepth = maxStackSize / 2;
+        event.commit();
+    }
+
+    // Výchozí vzor (usePattern): šachovnice 8 px z barvy výplně a azurové
+    public static Pattern defaultPattern(int fillColor) {
+        return TilePattern.checker(8, fillColor, Color.CYAN.getRGB());
+    }
+
+    // Vlastní vzor místo výchozího, null = plná barva
+    public void setPattern(Pattern pattern) {
+        this.pattern = pattern;
     }
 
     private void seedFillByBg(int x, int y) {
-        Stack<int[]> stack = new Stack<>();
-        stack.push(new int[]{x, y});
-
-        while (!stack.isEmpty()) {
-            int[] pos = stack.pop();
-            int cx = pos[0];
-            int cy = pos[1];
-
-            if (isInBounds(cx, cy) && raster.getPixel(cx, cy) == bgColor) {
-                int colorToSet = usePattern ? getPatternColor(cx, cy) : fillColor;
-
-                raster.setPixel(cx, cy, colorToSet);
-                stack.push(new int[]{cx + 1, cy});
-                stack.push(new int[]{cx - 1, cy});
-                stack.push(new int[]{cx, cy + 1});
-                stack.push(new int[]{cx, cy - 1});
-            }
-        }
+        spanFill(x, y, bgColor);
     }
 
     private void seedFillByBorder(int x, int y) {
-        Stack<int[]> stack = new Stack<>();
-        stack.push(new int[]{x, y});
+        if (!isInBounds(x, y)) return;
 
         int targetColor = raster.getPixel(x, y);
+        if (targetColor == borderColor) return;
+
+        spanFill(x, y, targetColor);
+    }
 
-        while (!stack.isEmpty()) {
-            int[] pos = stack.pop();
-            int cx = pos[0];
-            int cy = pos[1];
+    private void spanFill(int x, int y, int targetColor) {
+        if (!isInBounds(x, y)) return;
 
-            if (isInBounds(cx, cy)) {
-                int currentPixelColor = raster.getPixel(cx, cy);
+        boolean paintsTarget = pattern != null ? pattern.contains(targetColor) : fillColor == targetColor;
+        if (paintsTarget && pattern == null) return;
 
-                if (currentPixelColor != borderColor && currentPixelColor == targetColor) {
+        visited = paintsTarget ? new BitSet(raster.getWidth() * raster.getHeight()) : null;
+        stackSize = 0;
+        push(x, y);
 
-                    int colorToSet = usePattern ? getPatternColor(cx, cy) : fillColor;
+        while (stackSize > 0) {
+            int cy = stack[--stackSize];
+            int cx = stack[--stackSize];
+            if (!isFillable(cx, cy, targetColor)) continue;
 
-                    raster.setPixel(cx, cy, colorToSet);
+            int left = cx;
+            while (left > 0 && isFillable(left - 1, cy, targetColor)) left--;
+            int right = cx;
+            while (right < raster.getWidth() - 1 && isFillable(right + 1, cy, targetColor)) right++;
 
-                    stack.push(new int[]{cx + 1, cy});
-                    stack.push(new int[]{cx - 1, cy});
-                    stack.push(new int[]{cx, cy + 1});
-                    stack.push(new int[]{cx, cy - 1});
+            paintSpan(cy, left, right);
+
+            if (cy > 0) pushRuns(left, right, cy - 1, targetColor);
+            if (cy < raster.getHeight() - 1) pushRuns(left, right, cy + 1, targetColor);
+        }
+
+        visited = null;
+    }
+
+    private void paintSpan(int y, int x1, int x2) {
+        paintedSpans++;
+        paintedPixels += x2 - x1 + 1;
+        if (paintedSpans == 1) {
+            paintedMinX = x1;
+            paintedMaxX = x2;
+            paintedMinY = paintedMaxY = y;
+        } else {
+            paintedMinX = Math.min(paintedMinX, x1);
+            paintedMaxX = Math.max(paintedMaxX, x2);
+            paintedMinY = Math.min(paintedMinY, y);
+            paintedMaxY = Math.max(paintedMaxY, y);
+        }
+        if (recorder != null) recorder.span(y, x1, x2);
+        if (visited != null) {
+            int row = y * raster.getWidth();
+            visited.set(row + x1, row + x2 + 1);
+        }
+
+        if (pattern != null) {
+            pattern.fillSpan(raster, y, x1, x2);
+        } else {
+            raster.fillSpan(y, x1, x2, fillColor);
+        }
+    }
+
+    private void pushRuns(int x1, int x2, int y, int targetColor) {
+        boolean inRun = false;
+        for (int x = x1; x <= x2; x++) {
+            if (isFillable(x, y, targetColor)) {
+                if (!inRun) {
+                    push(x, y);
+                    inRun = true;
                 }
+            } else {
+                inRun = false;
             }
         }
     }
 
+    private boolean isFillable(int x, int y, int targetColor) {
+        if (raster.getPixel(x, y) != targetColor) return false;
+        return visited == null || !visited.get(y * raster.getWidth() + x);
+    }
+
+    private void push(int x, int y) {
+        if (stackSize + 2 > stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[stackSize++] = x;
+        stack[stackSize++] = y;
+        maxStackSize = Math.max(maxStackSize, stackSize);
+    }
+
     private boolean isInBounds(int x, int y) {
         return x >= 0 && y >= 0 && x < raster.getWidth() && y < raster.getHeight();
     }
@@ -0,0 +1,52 @@
+package fill;
+
+import java.util.Arrays;
+
+// Seznam vodorovných úseků (y, x1, x2), u ScanLine seřazený podle y tak, jak ho vrací EdgeTable,
+// u SeedFill v pořadí vybarvování (firstAtOrAfter pak nemá smysl)
+public class SpanList implements EdgeTable.SpanConsumer {
+    private int[] data = new int[48];
+    private int size;
+
+    @Override
+    public void span(int y, int x1, int x2) {
+        if (3 * size + 3 > data.length) {
+            data = Arrays.copyOf(data, Math.max(48, data.length * 2));
+        }
+        data[3 * size] = y;
+        data[3 * size + 1] = x1;
+        data[3 * size + 2] = x2;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getY(int i) {
+        return data[3 * i];
+    }
+
+    public int getX1(int i) {
+        return data[3 * i + 1];
+    }
+
+    public int getX2(int i) {
+        return data[3 * i + 2];
+    }
+
+    // Index prvního úseku s y >= row (nebo size(), pokud takový není)
+    public int firstAtOrAfter(int row) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (data[3 * mid] < row) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    public void trim() {
+        data = Arrays.copyOf(data, 3 * size);
+    }
+}
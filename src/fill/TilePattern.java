@@ -0,0 +1,122 @@
+package fill;
+
+import rasterize.Raster;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Vzor z opakované dlaždice libovolné velikosti
+// Postup:
+// 1 - Každý řádek dlaždice se předem zopakuje do pole délky alespoň MIN_ROW_LENGTH (násobek šířky dlaždice)
+// 2 - Úsek se vybarví kopírováním řádku od sloupce x1 mod šířka po kusech přes Raster.copyRow (System.arraycopy),
+//     bez dělení a větvení po pixelech
+// 3 - Dlaždice je zarovnaná na počátek rastru, pixel (x, y) má barvu dlaždice (x mod šířka, y mod výška)
+// Barvy se ukládají s plnou alfou, stejně jako je vrací Raster.getPixel.
+// Šachovnice z checker se sdílí přes malou LRU cache (MAX_CHECKERS), každá barva výplně má vlastní šachovnici,
+// takže by neomezená cache rostla po celou dobu editace.
+
+public class TilePattern implements Pattern {
+    private static final int MIN_ROW_LENGTH = 256;
+    private static final int MAX_CHECKERS = 64;
+
+    private record CheckerKey(int size, int colorA, int colorB) {
+    }
+
+    // Přístup přes synchronized (CHECKERS), LinkedHashMap v pořadí přístupu
+    private static final Map<CheckerKey, TilePattern> CHECKERS = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CheckerKey, TilePattern> eldest) {
+            return size() > MAX_CHECKERS;
+        }
+    };
+
+    private final int tileWidth;
+    private final int tileHeight;
+    private final int[][] rows;
+    private final int[] colors;
+
+    // Dlaždice tileWidth x tileHeight, pixely po řádcích
+    public TilePattern(int[] tile, int tileWidth, int tileHeight) {
+        if (tileWidth <= 0 || tileHeight <= 0 || tile.length < tileWidth * tileHeight) {
+            throw new IllegalArgumentException("Invalid tile " + tileWidth + "x" + tileHeight);
+        }
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+
+        int rowLength = tileWidth * Math.max(1, (MIN_ROW_LENGTH + tileWidth - 1) / tileWidth);
+        rows = new int[tileHeight][rowLength];
+        for (int y = 0; y < tileHeight; y++) {
+            for (int x = 0; x < rowLength; x++) {
+                rows[y][x] = tile[y * tileWidth + x % tileWidth] | 0xFF000000;
+            }
+        }
+
+        colors = Arrays.stream(rows).flatMapToInt(row -> Arrays.stream(row, 0, tileWidth)).distinct().sorted().toArray();
+    }
+
+    // Šachovnice se čtverci size x size, levý horní čtverec má barvu colorA; stejné šachovnice se sdílí
+    public static TilePattern checker(int size, int colorA, int colorB) {
+        CheckerKey key = new CheckerKey(size, colorA, colorB);
+        synchronized (CHECKERS) {
+            TilePattern pattern = CHECKERS.get(key);
+            if (pattern != null) return pattern;
+        }
+
+        int[] tile = new int[4 * size * size];
+        for (int y = 0; y < 2 * size; y++) {
+            for (int x = 0; x < 2 * size; x++) {
+                tile[y * 2 * size + x] = (x / size + y / size) % 2 == 0 ? colorA : colorB;
+            }
+        }
+        TilePattern pattern = new TilePattern(tile, 2 * size, 2 * size);
+        synchronized (CHECKERS) {
+            TilePattern existing = CHECKERS.putIfAbsent(key, pattern);
+            return existing != null ? existing : pattern;
+        }
+    }
+
+    public static TilePattern fromImage(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        return new TilePattern(image.getRGB(0, 0, width, height, null, 0, width), width, height);
+    }
+
+    @Override
+    public int getColor(int x, int y) {
+        return rows[Math.floorMod(y, tileHeight)][Math.floorMod(x, tileWidth)];
+    }
+
+    @Override
+    public void fillSpan(Raster raster, int y, int x1, int x2) {
+        if (y < 0 || y >= raster.getHeight()) return;
+        x1 = Math.max(x1, 0);
+        x2 = Math.min(x2, raster.getWidth() - 1);
+        if (x1 > x2) return;
+
+        int[] row = rows[Math.floorMod(y, tileHeight)];
+        int offset = Math.floorMod(x1, tileWidth);
+
+        int x = x1;
+        while (x <= x2) {
+            int length = Math.min(x2 - x + 1, row.length - offset);
+            raster.copyRow(x, y, row, offset, length);
+            x += length;
+            offset = 0;
+        }
+    }
+
+    @Override
+    public boolean contains(int color) {
+        return Arrays.binarySearch(colors, color) >= 0;
+    }
+
+    public int getTileWidth() {
+        return tileWidth;
+    }
+
+    public int getTileHeight() {
+        return tileHeight;
+    }
+}
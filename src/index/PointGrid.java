@@ -0,0 +1,137 @@
+package index;
+
+import model.Point;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+// Prostorový index bodů: rovnoměrná mřížka
+// Postup algoritmu:
+// 1 - Rovinu rozdělí na čtvercové buňky o straně cellSize, každý bod uloží do buňky podle floor(x / cellSize), floor(y / cellSize)
+// 2 - Dotaz v okruhu projde jen buňky, které okruh překrývá
+// 3 - Nejbližší bod hledá po prstencích buněk kolem buňky dotazu a skončí, jakmile je nejbližší možný bod
+//     v dalším prstenci dál než dosud nalezený nejlepší
+// 4 - Všechny vzdálenosti porovnává ve čtvercích, bez odmocniny
+
+public class PointGrid<T> {
+    public record Entry<T>(Point point, T owner) {
+    }
+
+    private final int cellSize;
+    private final HashMap<Long, ArrayList<Entry<T>>> cells = new HashMap<>();
+    private int size;
+    private int minCellX = Integer.MAX_VALUE, minCellY = Integer.MAX_VALUE;
+    private int maxCellX = Integer.MIN_VALUE, maxCellY = Integer.MIN_VALUE;
+
+    public PointGrid(int cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    public void add(Point point, T owner) {
+        int cx = Math.floorDiv(point.getX(), cellSize);
+        int cy = Math.floorDiv(point.getY(), cellSize);
+        cells.computeIfAbsent(key(cx, cy), k -> new ArrayList<>()).add(new Entry<>(point, owner));
+        size++;
+
+        minCellX = Math.min(minCellX, cx);
+        minCellY = Math.min(minCellY, cy);
+        maxCellX = Math.max(maxCellX, cx);
+        maxCellY = Math.max(maxCellY, cy);
+    }
+
+    public boolean remove(Point point, T owner) {
+        long key = key(Math.floorDiv(point.getX(), cellSize), Math.floorDiv(point.getY(), cellSize));
+        ArrayList<Entry<T>> cell = cells.get(key);
+        if (cell == null) return false;
+
+        for (int i = 0; i < cell.size(); i++) {
+            Entry<T> entry = cell.get(i);
+            if (entry.point() == point && entry.owner() == owner) {
+                cell.remove(i);
+                if (cell.isEmpty()) cells.remove(key);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void clear() {
+        cells.clear();
+        size = 0;
+        minCellX = Integer.MAX_VALUE;
+        minCellY = Integer.MAX_VALUE;
+        maxCellX = Integer.MIN_VALUE;
+        maxCellY = Integer.MIN_VALUE;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public List<Entry<T>> queryRadius(int x, int y, int radius) {
+        List<Entry<T>> result = new ArrayList<>();
+        long radiusSq = (long) radius * radius;
+
+        int fromX = Math.floorDiv(x - radius, cellSize), toX = Math.floorDiv(x + radius, cellSize);
+        int fromY = Math.floorDiv(y - radius, cellSize), toY = Math.floorDiv(y + radius, cellSize);
+        for (int cy = fromY; cy <= toY; cy++) {
+            for (int cx = fromX; cx <= toX; cx++) {
+                ArrayList<Entry<T>> cell = cells.get(key(cx, cy));
+                if (cell == null) continue;
+
+                for (Entry<T> entry : cell) {
+                    if (distanceSq(entry.point(), x, y) <= radiusSq) result.add(entry);
+                }
+            }
+        }
+        return result;
+    }
+
+    public Entry<T> nearest(int x, int y, long maxDistanceSq) {
+        if (size == 0) return null;
+
+        int cx = Math.floorDiv(x, cellSize);
+        int cy = Math.floorDiv(y, cellSize);
+        int maxRing = Math.max(Math.max(Math.abs(cx - minCellX), Math.abs(cx - maxCellX)),
+                Math.max(Math.abs(cy - minCellY), Math.abs(cy - maxCellY)));
+
+        Entry<T> best = null;
+        long bestDistance = maxDistanceSq;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            long reach = (long) (ring - 1) * cellSize;
+            if (reach > 0 && reach * reach >= bestDistance) break;
+
+            for (int gy = cy - ring; gy <= cy + ring; gy++) {
+                boolean edgeRow = gy == cy - ring || gy == cy + ring;
+                int step = edgeRow ? 1 : 2 * ring;
+
+                for (int gx = cx - ring; gx <= cx + ring; gx += step) {
+                    ArrayList<Entry<T>> cell = cells.get(key(gx, gy));
+                    if (cell == null) continue;
+
+                    for (Entry<T> entry : cell) {
+                        long d = distanceSq(entry.point(), x, y);
+                        if (d < bestDistance) {
+                            best = entry;
+                            bestDistance = d;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private static long distanceSq(Point p, int x, int y) {
+        long dx = p.getX() - x;
+        long dy = p.getY() - y;
+        return dx * dx + dy * dy;
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+}
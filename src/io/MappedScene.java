@@ -0,0 +1,350 @@
+package io;
+
+import model.FillMode;
+import model.GeometryStore;
+import model.Line;
+import model.Point;
+import model.Polygon;
+import model.ScanLineData;
+import model.SeedFillData;
+import render.Scene;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.SceneBinaryFormat.*;
+
+// Scéna v binárním formátu (popis v SceneBinaryFormat) namapovaná do paměti přes FileChannel
+// Při otevření se zkontroluje hlavička (i kladná velikost kanvasu) a rozsahy odkazů v záznamech (vrcholy obrysů
+// a výplní, režim seed fill a startovní bod na kanvasu),
+// poškozený soubor tak skončí IOException už při open; záznamy se dekódují až při přístupu přímo z namapovaného bufferu:
+// - get* metody čtou jednotlivá primitiva bez vytváření objektů
+// - seznamy z outlines(), scanLineFills() a seedFills() vytvoří objekt modelu až při get(i)
+// - toScene() jedním průchodem zkopíruje geometrii do GeometryStore (cache pro vykreslování), vrcholy bere přímo
+//   z namapovaného bufferu; seed fill zůstávají líně dekódované
+// Mapování zůstává platné i po zavření kanálu a uvolní se spolu s objektem.
+
+public class MappedScene {
+    private final MappedByteBuffer buffer;
+    private final int width;
+    private final int height;
+    private final boolean antialiasing;
+
+    private final int lineCount;
+    private final int outlineCount;
+    private final int outlineVertexCount;
+    private final int fillCount;
+    private final int fillVertexCount;
+    private final int seedCount;
+
+    private final int linesOffset;
+    private final int outlinesOffset;
+    private final int outlineVerticesOffset;
+    private final int fillsOffset;
+    private final int fillVerticesOffset;
+    private final int seedsOffset;
+
+    private MappedScene(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("not a binary scene file");
+        }
+        int version = buffer.getShort(OFFSET_VERSION);
+        if (version < 1 || version > VERSION) {
+            throw new IOException("unsupported scene version " + version);
+        }
+
+        antialiasing = (buffer.getShort(OFFSET_FLAGS) & FLAG_ANTIALIASING) != 0;
+        width = buffer.getInt(OFFSET_WIDTH);
+        height = buffer.getInt(OFFSET_HEIGHT);
+        if (width <= 0 || height <= 0) throw new IOException("invalid canvas size " + width + " x " + height);
+        lineCount = count(OFFSET_LINE_COUNT);
+        outlineCount = count(OFFSET_OUTLINE_COUNT);
+        outlineVertexCount = count(OFFSET_OUTLINE_VERTEX_COUNT);
+        fillCount = count(OFFSET_FILL_COUNT);
+        fillVertexCount = count(OFFSET_FILL_VERTEX_COUNT);
+        seedCount = count(OFFSET_SEED_COUNT);
+
+        long offset = HEADER_SIZE;
+        linesOffset = (int) offset;
+        offset += (long) lineCount * LINE_SIZE;
+        outlinesOffset = checkOffset(offset);
+        offset += (long) outlineCount * OUTLINE_SIZE;
+        outlineVerticesOffset = checkOffset(offset);
+        offset += (long) outlineVertexCount * VERTEX_SIZE;
+        fillsOffset = checkOffset(offset);
+        offset += (long) fillCount * FILL_SIZE;
+        fillVerticesOffset = checkOffset(offset);
+        offset += (long) fillVertexCount * VERTEX_SIZE;
+        seedsOffset = checkOffset(offset);
+        offset += (long) seedCount * SEED_SIZE;
+        checkOffset(offset);
+
+        checkOutlines();
+        checkFills();
+        checkSeedFills();
+    }
+
+    public static MappedScene open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("scene file larger than 2 GB");
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return new MappedScene(buffer);
+        }
+    }
+
+    private int count(int headerOffset) throws IOException {
+        int count = buffer.getInt(headerOffset);
+        if (count < 0) throw new IOException("corrupted scene header");
+        return count;
+    }
+
+    private int checkOffset(long offset) throws IOException {
+        if (offset > buffer.capacity()) throw new IOException("truncated scene file");
+        return (int) offset;
+    }
+
+    // Obrysy musí pokrýt vrcholy obrysů souvisle a popořadě (první vrchol = index první hrany, viz SceneBinaryFormat)
+    private void checkOutlines() throws IOException {
+        long next = 0;
+        for (int i = 0; i < outlineCount; i++) {
+            int base = outlinesOffset + i * OUTLINE_SIZE;
+            int first = buffer.getInt(base);
+            int count = buffer.getInt(base + 4);
+            if (first != next || count < 0) throw new IOException("corrupted outline record " + i);
+            next += count;
+        }
+        if (next != outlineVertexCount) throw new IOException("outline records do not match the outline vertex count");
+    }
+
+    private void checkFills() throws IOException {
+        for (int i = 0; i < fillCount; i++) {
+            int base = fillsOffset + i * FILL_SIZE;
+            int first = buffer.getInt(base);
+            int count = buffer.getInt(base + 4);
+            if (first < 0 || count < 0 || (long) first + count > fillVertexCount) {
+                throw new IOException("fill record " + i + " points outside the fill vertex section");
+            }
+        }
+    }
+
+    private void checkSeedFills() throws IOException {
+        int modes = FillMode.values().length;
+        for (int i = 0; i < seedCount; i++) {
+            int base = seedsOffset + i * SEED_SIZE;
+            int x = buffer.getInt(base);
+            int y = buffer.getInt(base + 4);
+            int mode = buffer.getInt(base + 8);
+            if (mode < 0 || mode >= modes) throw new IOException("seed fill record " + i + " has unknown mode " + mode);
+            if (x < 0 || y < 0 || x >= width || y >= height) {
+                throw new IOException("seed fill record " + i + " starts outside the canvas at " + x + " " + y);
+            }
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean isAntialiasing() {
+        return antialiasing;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public int getLineX1(int i) {
+        return buffer.getInt(linesOffset + i * LINE_SIZE);
+    }
+
+    public int getLineY1(int i) {
+        return buffer.getInt(linesOffset + i * LINE_SIZE + 4);
+    }
+
+    public int getLineX2(int i) {
+        return buffer.getInt(linesOffset + i * LINE_SIZE + 8);
+    }
+
+    public int getLineY2(int i) {
+        return buffer.getInt(linesOffset + i * LINE_SIZE + 12);
+    }
+
+    public int getLineColor1(int i) {
+        return buffer.getInt(linesOffset + i * LINE_SIZE + 16);
+    }
+
+    public int getLineColor2(int i) {
+        return buffer.getInt(linesOffset + i * LINE_SIZE + 20);
+    }
+
+    public Line getLine(int i) {
+        return new Line(new Point(getLineX1(i), getLineY1(i)), new Point(getLineX2(i), getLineY2(i)),
+                new Color(getLineColor1(i), true), new Color(getLineColor2(i), true));
+    }
+
+    public int getOutlineCount() {
+        return outlineCount;
+    }
+
+    public int getOutlineVertexCount(int i) {
+        return buffer.getInt(outlinesOffset + i * OUTLINE_SIZE + 4);
+    }
+
+    public Polygon getOutline(int i) {
+        int base = outlinesOffset + i * OUTLINE_SIZE;
+        return readPolygon(outlineVerticesOffset, buffer.getInt(base), buffer.getInt(base + 4));
+    }
+
+    public int getFillCount() {
+        return fillCount;
+    }
+
+    public ScanLineData getScanLineFill(int i) {
+        int base = fillsOffset + i * FILL_SIZE;
+        Polygon polygon = readPolygon(fillVerticesOffset, buffer.getInt(base), buffer.getInt(base + 4));
+        return new ScanLineData(polygon, buffer.getInt(base + 8), (buffer.getInt(base + 12) & FLAG_PATTERN) != 0);
+    }
+
+    public int getSeedCount() {
+        return seedCount;
+    }
+
+    public SeedFillData getSeedFill(int i) {
+        int base = seedsOffset + i * SEED_SIZE;
+        Point start = new Point(buffer.getInt(base), buffer.getInt(base + 4));
+        FillMode mode = FillMode.values()[buffer.getInt(base + 8)];
+        return new SeedFillData(start, mode, buffer.getInt(base + 12), buffer.getInt(base + 16),
+                (buffer.getInt(base + 20) & FLAG_PATTERN) != 0);
+    }
+
+    // Nejdřív samostatné úsečky, potom hrany obrysů; hrana obrysu se najde půlením podle prvního vrcholu obrysu
+    public List<Line> outlines() {
+        return new AbstractList<>() {
+            @Override
+            public Line get(int index) {
+                if (index < lineCount) return getLine(index);
+                return getOutlineEdge(index - lineCount);
+            }
+
+            @Override
+            public int size() {
+                return lineCount + outlineVertexCount;
+            }
+        };
+    }
+
+    public List<ScanLineData> scanLineFills() {
+        return new AbstractList<>() {
+            @Override
+            public ScanLineData get(int index) {
+                return getScanLineFill(index);
+            }
+
+            @Override
+            public int size() {
+                return fillCount;
+            }
+        };
+    }
+
+    public List<SeedFillData> seedFills() {
+        return new AbstractList<>() {
+            @Override
+            public SeedFillData get(int index) {
+                return getSeedFill(index);
+            }
+
+            @Override
+            public int size() {
+                return seedCount;
+            }
+        };
+    }
+
+    // Úsečky, hrany obrysů a vrcholy výplní se jedním sekvenčním průchodem přepíšou do GeometryStore,
+    // seed fill zůstávají líně dekódované
+    public Scene toScene() {
+        IntBuffer fillVertices = buffer.slice(fillVerticesOffset, fillVertexCount * VERTEX_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        GeometryStore geometry = new GeometryStore(lineCount + outlineVertexCount, fillCount, fillVertexCount);
+
+        for (int i = 0; i < lineCount; i++) {
+            geometry.addLine(getLineX1(i), getLineY1(i), getLineX2(i), getLineY2(i), getLineColor1(i), getLineColor2(i));
+        }
+
+        for (int i = 0; i < outlineCount; i++) {
+            int base = outlinesOffset + i * OUTLINE_SIZE;
+            int first = buffer.getInt(base);
+            int count = buffer.getInt(base + 4);
+            int c1 = buffer.getInt(base + 8);
+            int c2 = buffer.getInt(base + 12);
+            for (int v = 0; v < count; v++) {
+                int a = outlineVerticesOffset + (first + v) * VERTEX_SIZE;
+                int b = outlineVerticesOffset + (first + (v + 1) % count) * VERTEX_SIZE;
+                geometry.addLine(buffer.getInt(a), buffer.getInt(a + 4), buffer.getInt(b), buffer.getInt(b + 4), c1, c2);
+            }
+        }
+
+        for (int i = 0; i < fillCount; i++) {
+            int base = fillsOffset + i * FILL_SIZE;
+            int flags = (buffer.getInt(base + 12) & FLAG_PATTERN) != 0 ? GeometryStore.FLAG_PATTERN : 0;
+            geometry.addPolygon(fillVertices, buffer.getInt(base), buffer.getInt(base + 4), buffer.getInt(base + 8), flags);
+        }
+
+        return new Scene(geometry, seedFills(), antialiasing);
+    }
+
+    public SceneFile toSceneFile() {
+        return new SceneFile(width, height, toScene());
+    }
+
+    private Line getOutlineEdge(int edge) {
+        if (edge < 0 || edge >= outlineVertexCount) throw new IndexOutOfBoundsException(edge);
+
+        int lo = 0, hi = outlineCount - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (buffer.getInt(outlinesOffset + mid * OUTLINE_SIZE) <= edge) lo = mid;
+            else hi = mid - 1;
+        }
+
+        int base = outlinesOffset + lo * OUTLINE_SIZE;
+        int first = buffer.getInt(base);
+        int count = buffer.getInt(base + 4);
+        int a = edge;
+        int b = (edge + 1 - first) % count + first;
+
+        return new Line(vertex(outlineVerticesOffset, a), vertex(outlineVerticesOffset, b),
+                new Color(buffer.getInt(base + 8), true), new Color(buffer.getInt(base + 12), true));
+    }
+
+    private Polygon readPolygon(int verticesOffset, int first, int count) {
+        ArrayList<Point> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            points.add(vertex(verticesOffset, first + i));
+        }
+        return new Polygon(points);
+    }
+
+    private Point vertex(int verticesOffset, int index) {
+        int offset = verticesOffset + index * VERTEX_SIZE;
+        return new Point(buffer.getInt(offset), buffer.getInt(offset + 4));
+    }
+}
@@ -0,0 +1,50 @@
+package io;
+
+// Binární formát scény (little endian, všechna čísla int32)
+//
+// Hlavička, HEADER_SIZE bajtů:
+//   0  magic 'PGSC'            4  verze (int16)        6  příznaky (int16, bit 0 = antialiasing)
+//   8  šířka                   12 výška
+//   16 počet úseček            20 počet obrysů polygonů    24 počet vrcholů obrysů
+//   28 počet ScanLine výplní   32 počet vrcholů výplní     36 počet seed fill
+//   40..63 rezerva (nuly)
+//
+// Za hlavičkou následují sekce v tomto pořadí, každá je pole záznamů pevné délky, takže k i-tému záznamu
+// se dá přistoupit přímo bez čtení předchozích:
+//   úsečky            x1, y1, x2, y2, c1, c2                 (LINE_SIZE)
+//   obrysy            první vrchol, počet vrcholů, c1, c2     (OUTLINE_SIZE)
+//   vrcholy obrysů    x, y                                   (VERTEX_SIZE)
+//   výplně            první vrchol, počet vrcholů, barva, příznaky (bit 0 = vzor)   (FILL_SIZE)
+//   vrcholy výplní    x, y                                   (VERTEX_SIZE)
+//   seed fill         x, y, režim, barva, barva hranice, příznaky (bit 0 = vzor)    (SEED_SIZE)
+//
+// Barvy jsou ARGB. Obrys je uzavřený, má tolik hran jako vrcholů, první vrchol obrysu je tedy zároveň
+// index jeho první hrany mezi všemi hranami obrysů.
+
+final class SceneBinaryFormat {
+    static final int MAGIC = 'P' | 'G' << 8 | 'S' << 16 | 'C' << 24;
+    static final short VERSION = 1;
+    static final int FLAG_ANTIALIASING = 1;
+    static final int FLAG_PATTERN = 1;
+
+    static final int HEADER_SIZE = 64;
+    static final int LINE_SIZE = 24;
+    static final int OUTLINE_SIZE = 16;
+    static final int FILL_SIZE = 16;
+    static final int VERTEX_SIZE = 8;
+    static final int SEED_SIZE = 24;
+
+    static final int OFFSET_VERSION = 4;
+    static final int OFFSET_FLAGS = 6;
+    static final int OFFSET_WIDTH = 8;
+    static final int OFFSET_HEIGHT = 12;
+    static final int OFFSET_LINE_COUNT = 16;
+    static final int OFFSET_OUTLINE_COUNT = 20;
+    static final int OFFSET_OUTLINE_VERTEX_COUNT = 24;
+    static final int OFFSET_FILL_COUNT = 28;
+    static final int OFFSET_FILL_VERTEX_COUNT = 32;
+    static final int OFFSET_SEED_COUNT = 36;
+
+    private SceneBinaryFormat() {
+    }
+}
@@ -0,0 +1,143 @@
+package io;
+
+import model.GeometryStore;
+import model.Line;
+import model.Point;
+import model.Polygon;
+import model.ScanLineData;
+import model.SeedFillData;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static io.SceneBinaryFormat.*;
+
+// Zápis scény do binárního formátu (popis v SceneBinaryFormat)
+// Záznamy se drží v rostoucích polích int, soubor se pak zapíše po sekcích přes jeden přímý buffer
+public class SceneBinaryWriter {
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private final int width;
+    private final int height;
+    private final boolean antialiasing;
+
+    private final IntArray lines = new IntArray();
+    private final IntArray outlines = new IntArray();
+    private final IntArray outlineVertices = new IntArray();
+    private final IntArray fills = new IntArray();
+    private final IntArray fillVertices = new IntArray();
+    private final IntArray seeds = new IntArray();
+
+    public SceneBinaryWriter(int width, int height, boolean antialiasing) {
+        this.width = width;
+        this.height = height;
+        this.antialiasing = antialiasing;
+    }
+
+    // Scéna už má obrysy polygonů rozložené na úsečky, uloží se proto jako úsečky
+    public static void write(Path path, SceneFile file) throws IOException {
+        GeometryStore geometry = file.scene().geometry();
+        SceneBinaryWriter writer = new SceneBinaryWriter(file.width(), file.height(), file.scene().antialiasing());
+
+        for (int i = 0; i < geometry.getLineCount(); i++) {
+            writer.addLine(geometry.getLineX1(i), geometry.getLineY1(i), geometry.getLineX2(i), geometry.getLineY2(i),
+                    geometry.getLineColor1(i), geometry.getLineColor2(i));
+        }
+        for (int p = 0; p < geometry.getPolygonCount(); p++) {
+            writer.addScanLineFill(geometry.getScanLineData(p));
+        }
+        file.scene().seedFills().forEach(writer::addSeedFill);
+        writer.write(path);
+    }
+
+    public void addLine(Line line) {
+        addLine(line.getX1(), line.getY1(), line.getX2(), line.getY2(), line.c1().getRGB(), line.c2().getRGB());
+    }
+
+    public void addLine(int x1, int y1, int x2, int y2, int c1, int c2) {
+        lines.add(x1, y1, x2, y2);
+        lines.add(c1, c2);
+    }
+
+    public void addOutline(Polygon polygon, Color c1, Color c2) {
+        outlines.add(outlineVertices.size() / 2, polygon.points().size(), c1.getRGB(), c2.getRGB());
+        addVertices(outlineVertices, polygon);
+    }
+
+    public void addScanLineFill(ScanLineData data) {
+        fills.add(fillVertices.size() / 2, data.getPolygon().points().size(), data.getFillColor(), data.isUsePattern() ? FLAG_PATTERN : 0);
+        addVertices(fillVertices, data.getPolygon());
+    }
+
+    public void addSeedFill(SeedFillData data) {
+        Point start = data.getStartPoint();
+        seeds.add(start.getX(), start.getY(), data.getMode().ordinal(), data.getFillColor());
+        seeds.add(data.getBorderColor(), data.isUsePattern() ? FLAG_PATTERN : 0);
+    }
+
+    private static void addVertices(IntArray vertices, Polygon polygon) {
+        for (Point p : polygon.points()) {
+            vertices.add(p.getX(), p.getY());
+        }
+    }
+
+    public void write(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.putInt(MAGIC);
+            buffer.putShort(VERSION);
+            buffer.putShort((short) (antialiasing ? FLAG_ANTIALIASING : 0));
+            buffer.putInt(width).putInt(height);
+            buffer.putInt(lines.size() * 4 / LINE_SIZE);
+            buffer.putInt(outlines.size() * 4 / OUTLINE_SIZE);
+            buffer.putInt(outlineVertices.size() * 4 / VERTEX_SIZE);
+            buffer.putInt(fills.size() * 4 / FILL_SIZE);
+            buffer.putInt(fillVertices.size() * 4 / VERTEX_SIZE);
+            buffer.putInt(seeds.size() * 4 / SEED_SIZE);
+            while (buffer.position() < HEADER_SIZE) buffer.put((byte) 0);
+
+            for (IntArray section : new IntArray[]{lines, outlines, outlineVertices, fills, fillVertices, seeds}) {
+                for (int i = 0; i < section.size(); i++) {
+                    if (!buffer.hasRemaining()) flush(channel, buffer);
+                    buffer.putInt(section.get(i));
+                }
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    private static final class IntArray {
+        private int[] data = new int[64];
+        private int size;
+
+        void add(int... values) {
+            if (size + values.length > data.length) {
+                data = Arrays.copyOf(data, Math.max(size + values.length, data.length * 2));
+            }
+            System.arraycopy(values, 0, data, size, values.length);
+            size += values.length;
+        }
+
+        int get(int index) {
+            return data[index];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package io;
+
+import render.Scene;
+
+public record SceneFile(int width, int height, Scene scene) {
+    public static final int DEFAULT_WIDTH = 800;
+    public static final int DEFAULT_HEIGHT = 600;
+}
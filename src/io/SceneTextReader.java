@@ -0,0 +1,211 @@
+package io;
+
+import clip.Clipper;
+import model.FillMode;
+import model.Line;
+import model.Point;
+import model.Polygon;
+import model.ScanLineData;
+import model.SeedFillData;
+import render.SceneBuilder;
+
+import java.awt.*;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Textový formát scény, jeden příkaz na řádek, řádek začínající '#' je komentář
+//
+//   size <w> <h>                                        velikost kanvasu (výchozí 800 x 600)
+//   aa on|off                                           antialiasing úseček
+//   line <x1> <y1> <x2> <y2> <#c1> [<#c2>]              úsečka s barevným přechodem
+//   polygon <#c1> <#c2> <x y>...                        obrys polygonu
+//   fill <#color> [pattern] <x y>...                    polygon vyplněný ScanLine
+//   seed <#color> [pattern] <x> <y>                     seed fill podle barvy pozadí
+//   seedborder <#color> <#border> [pattern] <x> <y>     seed fill po hranici
+//   clip <#color> [pattern] <x y>... / <x y>...         ořezávací polygon / ořezávaný polygon, výsledek se vyplní ScanLine
+//
+// Barvy jsou #RRGGBB nebo #AARRGGBB. Startovní bod seed fill musí ležet na kanvasu; kontroluje se až po načtení
+// celého souboru, takže size může stát kdekoliv. Příkazy se vykreslují ve stejném pořadí jako v aplikaci:
+// nejdřív obrysy, potom ScanLine výplně a nakonec seed fill.
+
+public class SceneTextReader {
+    private int width = SceneFile.DEFAULT_WIDTH;
+    private int height = SceneFile.DEFAULT_HEIGHT;
+    private boolean antialiasing;
+    private final SceneBuilder builder = new SceneBuilder();
+    private final List<SeedStart> seedStarts = new ArrayList<>();
+
+    private record SeedStart(int lineNumber, Point point) {
+    }
+
+    private String[] tokens;
+    private int pos;
+    private int lineNumber;
+
+    public static SceneFile read(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return new SceneTextReader().parse(reader);
+        }
+    }
+
+    public SceneFile parse(BufferedReader reader) throws IOException {
+        String text;
+        while ((text = reader.readLine()) != null) {
+            lineNumber++;
+            text = text.strip();
+            if (text.isEmpty() || text.startsWith("#")) continue;
+
+            tokens = text.split("\\s+");
+            pos = 1;
+            parseCommand(tokens[0]);
+            if (pos < tokens.length) throw error("unexpected '" + tokens[pos] + "'");
+        }
+
+        for (SeedStart start : seedStarts) {
+            Point p = start.point();
+            if (p.getX() < 0 || p.getY() < 0 || p.getX() >= width || p.getY() >= height) {
+                lineNumber = start.lineNumber();
+                throw error("seed point " + p.getX() + " " + p.getY() + " outside canvas " + width + " x " + height);
+            }
+        }
+        return new SceneFile(width, height, builder.build(antialiasing));
+    }
+
+    private void parseCommand(String command) throws IOException {
+        switch (command) {
+            case "size" -> {
+                width = nextInt();
+                height = nextInt();
+                if (width <= 0 || height <= 0) throw error("canvas size must be positive");
+            }
+            case "aa" -> antialiasing = switch (next()) {
+                case "on" -> true;
+                case "off" -> false;
+                default -> throw error("expected on or off");
+            };
+            case "line" -> {
+                Point p1 = nextPoint();
+                Point p2 = nextPoint();
+                Color c1 = nextColor();
+                Color c2 = hasColor() ? nextColor() : c1;
+                builder.addLine(new Line(p1, p2, c1, c2));
+            }
+            case "polygon" -> {
+                Color c1 = nextColor();
+                Color c2 = nextColor();
+                builder.addOutline(nextPolygon(), c1, c2, true);
+            }
+            case "fill" -> {
+                int color = nextColor().getRGB();
+                boolean pattern = nextPattern();
+                builder.addScanLineFill(new ScanLineData(nextPolygon(), color, pattern));
+            }
+            case "seed" -> {
+                int color = nextColor().getRGB();
+                boolean pattern = nextPattern();
+                builder.addSeedFill(new SeedFillData(nextSeedPoint(), FillMode.SEED_BG, color, 0, pattern));
+            }
+            case "seedborder" -> {
+                int color = nextColor().getRGB();
+                int border = nextColor().getRGB();
+                boolean pattern = nextPattern();
+                builder.addSeedFill(new SeedFillData(nextSeedPoint(), FillMode.SEED_BORDER, color, border, pattern));
+            }
+            case "clip" -> {
+                int color = nextColor().getRGB();
+                boolean pattern = nextPattern();
+                Polygon clipPolygon = nextPolygon();
+                if (!"/".equals(next())) throw error("expected '/' between clip and subject polygon");
+                Polygon subject = nextPolygon();
+
+                List<Point> result = new Clipper().clip(subject.points(), counterClockwise(clipPolygon.points()));
+                if (result != null && result.size() >= 3) {
+                    builder.addScanLineFill(new ScanLineData(new Polygon(new ArrayList<>(result)), color, pattern));
+                }
+            }
+            default -> throw error("unknown command '" + command + "'");
+        }
+    }
+
+    // Clipper bere vnitřek vlevo od hrany, ořezávací polygon proto otočí tak, aby byl v souřadnicích obrazovky proti směru hodinových ručiček
+    private static List<Point> counterClockwise(List<Point> points) {
+        long area = 0;
+        for (int i = 0; i < points.size(); i++) {
+            Point a = points.get(i);
+            Point b = points.get((i + 1) % points.size());
+            area += (long) a.getX() * b.getY() - (long) b.getX() * a.getY();
+        }
+
+        List<Point> result = new ArrayList<>(points);
+        if (area > 0) Collections.reverse(result);
+        return result;
+    }
+
+    private String next() throws IOException {
+        if (pos >= tokens.length) throw error("unexpected end of line");
+        return tokens[pos++];
+    }
+
+    private int nextInt() throws IOException {
+        String token = next();
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            throw error("expected integer, got '" + token + "'");
+        }
+    }
+
+    private Point nextPoint() throws IOException {
+        return new Point(nextInt(), nextInt());
+    }
+
+    private Point nextSeedPoint() throws IOException {
+        Point point = nextPoint();
+        seedStarts.add(new SeedStart(lineNumber, point));
+        return point;
+    }
+
+    private Polygon nextPolygon() throws IOException {
+        Polygon polygon = new Polygon();
+        while (pos < tokens.length && !tokens[pos].equals("/")) {
+            polygon.addPoint(nextPoint());
+        }
+        if (polygon.points().size() < 3) throw error("polygon needs at least 3 points");
+        return polygon;
+    }
+
+    private boolean hasColor() {
+        return pos < tokens.length && tokens[pos].startsWith("#");
+    }
+
+    private Color nextColor() throws IOException {
+        String token = next();
+        if (!token.startsWith("#") || (token.length() != 7 && token.length() != 9)) {
+            throw error("expected color #RRGGBB or #AARRGGBB, got '" + token + "'");
+        }
+        try {
+            long value = Long.parseLong(token.substring(1), 16);
+            return token.length() == 7 ? new Color((int) value) : new Color((int) value, true);
+        } catch (NumberFormatException e) {
+            throw error("invalid color '" + token + "'");
+        }
+    }
+
+    private boolean nextPattern() {
+        if (pos < tokens.length && tokens[pos].equals("pattern")) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private IOException error(String message) {
+        return new IOException("line " + lineNumber + ": " + message);
+    }
+}
@@ -0,0 +1,53 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// Ořezání jednoho polygonu v Clipper; ořezává se při úpravách a načítání scény, ne během snímku,
+// frame je proto 0, pokud ho volající clipAll nepředá
+@Name("pgrf.Clip")
+@Label("Clip")
+@Category({"PGRF", "Clipping"})
+@Description("Sutherland-Hodgman clip of one subject polygon")
+@StackTrace(false)
+@Threshold("20 us")
+public class ClipEvent extends Event {
+    @Label("Frame")
+    @Description("SceneRenderer frame the event belongs to (pgrf.Frame), 0 outside rendering")
+    public long frame;
+
+    @Label("Index")
+    @Description("Index of the subject polygon in clipAll, -1 for a single clip")
+    public int index;
+
+    @Label("Min X")
+    @Description("Bounding box of the subject polygon")
+    public int minX;
+
+    @Label("Min Y")
+    public int minY;
+
+    @Label("Max X")
+    public int maxX;
+
+    @Label("Max Y")
+    public int maxY;
+
+    @Label("Input Vertices")
+    public int inputVertices;
+
+    @Label("Clip Vertices")
+    public int clipVertices;
+
+    @Label("Output Vertices")
+    public int outputVertices;
+
+    @Label("Result")
+    @Description("inside / outside when the bounding box test decided, clipped otherwise")
+    public String result;
+}
@@ -0,0 +1,43 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Jeden snímek SceneRenderer.render (celé vykreslení scény po drawScene / drawSceneDirty)
+@Name("pgrf.Frame")
+@Label("Frame")
+@Category({"PGRF", "Rendering"})
+@Description("One SceneRenderer.render call")
+@StackTrace(false)
+public class FrameEvent extends Event {
+    @Label("Frame")
+    public long frame;
+
+    @Label("Full Redraw")
+    public boolean full;
+
+    @Label("Region Pixels")
+    public long regionPixels;
+
+    @Label("Tiles")
+    public int tiles;
+
+    @Label("Lines")
+    public int lines;
+
+    @Label("ScanLine Fills")
+    public int fills;
+
+    @Label("Span Cache Misses")
+    public int spanMisses;
+
+    @Label("Seed Fills")
+    public int seedFills;
+
+    @Label("Pixels Written")
+    public long pixelsWritten;
+}
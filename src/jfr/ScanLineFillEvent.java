@@ -0,0 +1,56 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// ScanLine.fill, nebo výpočet úseků polygonu pro SpanCache (spansOnly, nic se nevybarví)
+@Name("pgrf.ScanLineFill")
+@Label("ScanLine Fill")
+@Category({"PGRF", "Filling"})
+@Description("Scan-line fill of one polygon, or computing its spans for the span cache")
+@StackTrace(false)
+@Threshold("20 us")
+public class ScanLineFillEvent extends Event {
+    @Label("Frame")
+    @Description("SceneRenderer frame the event belongs to (pgrf.Frame), 0 outside rendering")
+    public long frame;
+
+    @Label("Index")
+    @Description("Index of the filled polygon in the scene geometry, -1 outside rendering")
+    public int index;
+
+    @Label("Min X")
+    public int minX;
+
+    @Label("Min Y")
+    public int minY;
+
+    @Label("Max X")
+    public int maxX;
+
+    @Label("Max Y")
+    public int maxY;
+
+    @Label("Vertices")
+    public int vertices;
+
+    @Label("Spans")
+    public int spans;
+
+    @Label("Pixels")
+    public long pixels;
+
+    @Label("Pattern")
+    public boolean pattern;
+
+    @Label("Parallel")
+    public boolean parallel;
+
+    @Label("Spans Only")
+    public boolean spansOnly;
+}
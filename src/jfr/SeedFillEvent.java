@@ -0,0 +1,64 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// SeedFill.fill, nebo přehrání zaznamenaných úseků (replayed, zásobník se nepoužije)
+@Name("pgrf.SeedFill")
+@Label("Seed Fill")
+@Category({"PGRF", "Filling"})
+@Description("Seed fill from one start point, or replay of its recorded spans")
+@StackTrace(false)
+@Threshold("20 us")
+public class SeedFillEvent extends Event {
+    @Label("Frame")
+    @Description("SceneRenderer frame the event belongs to (pgrf.Frame), 0 outside rendering")
+    public long frame;
+
+    @Label("Index")
+    @Description("Index of the seed fill in the scene, -1 outside rendering")
+    public int index;
+
+    @Label("Start X")
+    public int startX;
+
+    @Label("Start Y")
+    public int startY;
+
+    @Label("Border")
+    public boolean border;
+
+    @Label("Pattern")
+    public boolean pattern;
+
+    @Label("Replayed")
+    public boolean replayed;
+
+    @Label("Spans")
+    public int spans;
+
+    @Label("Pixels Filled")
+    public long pixels;
+
+    @Label("Min X")
+    @Description("Bounds of the painted spans (start point when nothing was painted)")
+    public int minX;
+
+    @Label("Min Y")
+    public int minY;
+
+    @Label("Max X")
+    public int maxX;
+
+    @Label("Max Y")
+    public int maxY;
+
+    @Label("Max Stack Depth")
+    @Description("Maximum number of seed points waiting on the stack")
+    public int maxStackDepth;
+}
@@ -0,0 +1,5 @@
+package model;
+
+public enum FillMode {
+    SCANLINE, SEED_BG, SEED_BORDER
+}
@@ -0,0 +1,217 @@
+package model;
+
+import java.awt.Color;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Úložiště geometrie scény v primitivních polích (struct of arrays)
+// - úsečky: souřadnice koncových bodů a barvy ARGB, každá složka ve vlastním poli int[], i-tá úsečka má index i ve všech polích
+// - polygony: všechny vrcholy ve společných polích vertexX / vertexY, polygon p má vrcholy
+//   polygonStart[p] .. polygonStart[p + 1] - 1, barvu výplně a příznaky
+// Vykreslování prochází přímo pole bez vytváření objektů. getLine / getPolygon vrací nové objekty modelu
+// jako pohled na uložená data pro kód, který pracuje s Line / Polygon (změny v nich se do úložiště nepromítnou).
+// Úložiště je cache na straně vykreslování, ne model editoru: editor drží Line / Polygon a SceneBuilder z nich
+// sestaví nové úložiště pro každou scénu předanou RenderThread (jen pro vrstvy, které se změnily). Kopie je zároveň
+// snímek, který vlákno vykreslování čte, zatímco editor mění své seznamy.
+
+public class GeometryStore {
+    public static final int FLAG_PATTERN = 1;
+
+    private int lineCount;
+    private int[] lineX1, lineY1, lineX2, lineY2, lineC1, lineC2;
+
+    private int polygonCount;
+    private int[] polygonStart;
+    private int[] polygonColor;
+    private int[] polygonFlags;
+
+    private int vertexCount;
+    private int[] vertexX, vertexY;
+
+    public GeometryStore() {
+        this(16, 4, 16);
+    }
+
+    public GeometryStore(int lineCapacity, int polygonCapacity, int vertexCapacity) {
+        lineCapacity = Math.max(lineCapacity, 1);
+        polygonCapacity = Math.max(polygonCapacity, 1);
+        vertexCapacity = Math.max(vertexCapacity, 1);
+
+        lineX1 = new int[lineCapacity];
+        lineY1 = new int[lineCapacity];
+        lineX2 = new int[lineCapacity];
+        lineY2 = new int[lineCapacity];
+        lineC1 = new int[lineCapacity];
+        lineC2 = new int[lineCapacity];
+
+        polygonStart = new int[polygonCapacity + 1];
+        polygonColor = new int[polygonCapacity];
+        polygonFlags = new int[polygonCapacity];
+
+        vertexX = new int[vertexCapacity];
+        vertexY = new int[vertexCapacity];
+    }
+
+    public void addLine(int x1, int y1, int x2, int y2, int c1, int c2) {
+        if (lineCount == lineX1.length) growLines(lineCount + 1);
+
+        lineX1[lineCount] = x1;
+        lineY1[lineCount] = y1;
+        lineX2[lineCount] = x2;
+        lineY2[lineCount] = y2;
+        lineC1[lineCount] = c1;
+        lineC2[lineCount] = c2;
+        lineCount++;
+    }
+
+    public void addLine(Line line) {
+        addLine(line.getX1(), line.getY1(), line.getX2(), line.getY2(), line.c1().getRGB(), line.c2().getRGB());
+    }
+
+    // Obrys polygonu jako posloupnost úseček (otevřený obrys nemá hranu z posledního vrcholu do prvního)
+    public void addOutline(Polygon polygon, int c1, int c2, boolean closed) {
+        int size = polygon.points().size();
+        int edgeCount = closed ? size : size - 1;
+        if (edgeCount <= 0) return;
+        if (lineCount + edgeCount > lineX1.length) growLines(lineCount + edgeCount);
+
+        for (int i = 1; i <= edgeCount; i++) {
+            Point a = polygon.getPoint(i - 1);
+            Point b = polygon.getPoint(i % size);
+            addLine(a.getX(), a.getY(), b.getX(), b.getY(), c1, c2);
+        }
+    }
+
+    public int addPolygon(Polygon polygon, int color, int flags) {
+        int size = polygon.points().size();
+        ensureVertices(vertexCount + size);
+        for (Point p : polygon.points()) {
+            vertexX[vertexCount] = p.getX();
+            vertexY[vertexCount] = p.getY();
+            vertexCount++;
+        }
+        return closePolygon(color, flags);
+    }
+
+    // Vrcholy first .. first + count - 1 z bufferu dvojic x, y (např. pohled na namapovaný soubor)
+    public int addPolygon(IntBuffer vertices, int first, int count, int color, int flags) {
+        ensureVertices(vertexCount + count);
+        for (int i = 2 * first, end = 2 * (first + count); i < end; i += 2) {
+            vertexX[vertexCount] = vertices.get(i);
+            vertexY[vertexCount] = vertices.get(i + 1);
+            vertexCount++;
+        }
+        return closePolygon(color, flags);
+    }
+
+    private int closePolygon(int color, int flags) {
+        if (polygonCount == polygonColor.length) {
+            int capacity = polygonColor.length * 2;
+            polygonStart = Arrays.copyOf(polygonStart, capacity + 1);
+            polygonColor = Arrays.copyOf(polygonColor, capacity);
+            polygonFlags = Arrays.copyOf(polygonFlags, capacity);
+        }
+
+        polygonColor[polygonCount] = color;
+        polygonFlags[polygonCount] = flags;
+        polygonStart[polygonCount + 1] = vertexCount;
+        return polygonCount++;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public int getLineX1(int i) {
+        return lineX1[i];
+    }
+
+    public int getLineY1(int i) {
+        return lineY1[i];
+    }
+
+    public int getLineX2(int i) {
+        return lineX2[i];
+    }
+
+    public int getLineY2(int i) {
+        return lineY2[i];
+    }
+
+    public int getLineColor1(int i) {
+        return lineC1[i];
+    }
+
+    public int getLineColor2(int i) {
+        return lineC2[i];
+    }
+
+    public Line getLine(int i) {
+        return new Line(new Point(lineX1[i], lineY1[i]), new Point(lineX2[i], lineY2[i]),
+                new Color(lineC1[i], true), new Color(lineC2[i], true));
+    }
+
+    public int getPolygonCount() {
+        return polygonCount;
+    }
+
+    public int getPolygonStart(int p) {
+        return polygonStart[p];
+    }
+
+    public int getPolygonSize(int p) {
+        return polygonStart[p + 1] - polygonStart[p];
+    }
+
+    public int getPolygonColor(int p) {
+        return polygonColor[p];
+    }
+
+    public boolean isPolygonPattern(int p) {
+        return (polygonFlags[p] & FLAG_PATTERN) != 0;
+    }
+
+    public Polygon getPolygon(int p) {
+        ArrayList<Point> points = new ArrayList<>(getPolygonSize(p));
+        for (int v = polygonStart[p]; v < polygonStart[p + 1]; v++) {
+            points.add(new Point(vertexX[v], vertexY[v]));
+        }
+        return new Polygon(points);
+    }
+
+    public ScanLineData getScanLineData(int p) {
+        return new ScanLineData(getPolygon(p), polygonColor[p], isPolygonPattern(p));
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    // Přímý přístup k polím vrcholů (platné jsou indexy 0 .. getVertexCount() - 1), pole se při přidání může vyměnit
+    public int[] getVertexXs() {
+        return vertexX;
+    }
+
+    public int[] getVertexYs() {
+        return vertexY;
+    }
+
+    private void growLines(int minCapacity) {
+        int capacity = Math.max(minCapacity, lineX1.length * 2);
+        lineX1 = Arrays.copyOf(lineX1, capacity);
+        lineY1 = Arrays.copyOf(lineY1, capacity);
+        lineX2 = Arrays.copyOf(lineX2, capacity);
+        lineY2 = Arrays.copyOf(lineY2, capacity);
+        lineC1 = Arrays.copyOf(lineC1, capacity);
+        lineC2 = Arrays.copyOf(lineC2, capacity);
+    }
+
+    private void ensureVertices(int minCapacity) {
+        if (minCapacity <= vertexX.length) return;
+
+        int capacity = Math.max(minCapacity, vertexX.length * 2);
+        vertexX = Arrays.copyOf(vertexX, capacity);
+        vertexY = Arrays.copyOf(vertexY, capacity);
+    }
+}
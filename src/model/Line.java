@@ -1,6 +1,7 @@
 package model;
 
 import java.awt.Color;
+import java.awt.Rectangle;
 
 public record Line(Point p1, Point p2, Color c1, Color c2) {
     public Line(Point p1, Point p2, Color color) {
@@ -26,4 +27,10 @@ public record Line(Point p1, Point p2, Color c1, Color c2) {
     public int getY2() {
         return p2.getY();
     }
+
+    public Rectangle getBounds() {
+        int minX = Math.min(getX1(), getX2());
+        int minY = Math.min(getY1(), getY2());
+        return new Rectangle(minX, minY, Math.abs(getX2() - getX1()) + 1, Math.abs(getY2() - getY1()) + 1);
+    }
 }
\ No newline at end of file
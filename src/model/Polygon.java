@@ -1,5 +1,6 @@
 package model;
 
+import java.awt.Rectangle;
 import java.util.ArrayList;
 
 public record Polygon(ArrayList<Point> points) {
@@ -22,4 +23,18 @@ public record Polygon(ArrayList<Point> points) {
     public Point getLast() {
         return points.getLast();
     }
+
+    public Rectangle getBounds() {
+        if (points.isEmpty()) return new Rectangle();
+
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (Point p : points) {
+            minX = Math.min(minX, p.getX());
+            minY = Math.min(minY, p.getY());
+            maxX = Math.max(maxX, p.getX());
+            maxY = Math.max(maxY, p.getY());
+        }
+        return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package model;
+
+public class ScanLineData {
+    private final Polygon polygon;
+    private final int fillColor;
+    private final boolean usePattern;
+
+    public ScanLineData(Polygon polygon, int fillColor, boolean usePattern) {
+        this.polygon = polygon;
+        this.fillColor = fillColor;
+        this.usePattern = usePattern;
+    }
+
+    public Polygon getPolygon() { return polygon; }
+    public int getFillColor() { return fillColor; }
+    public boolean isUsePattern() { return usePattern; }
+}
@@ -0,0 +1,23 @@
+package model;
+
+public class SeedFillData {
+    private final Point startPoint;
+    private final FillMode mode;
+    private final int fillColor;
+    private final int borderColor;
+    private final boolean usePattern;
+
+    public SeedFillData(Point startPoint, FillMode mode, int fillColor, int borderColor, boolean usePattern) {
+        this.startPoint = startPoint;
+        this.mode = mode;
+        this.fillColor = fillColor;
+        this.borderColor = borderColor;
+        this.usePattern = usePattern;
+    }
+
+    public Point getStartPoint() { return startPoint; }
+    public FillMode getMode() { return mode; }
+    public int getFillColor() { return fillColor; }
+    public int getBorderColor() { return borderColor; }
+    public boolean isUsePattern() { return usePattern; }
+}
@@ -0,0 +1,95 @@
+package rasterize;
+
+import java.awt.*;
+
+public class ClippedRaster implements Raster {
+
+    private final Raster target;
+    private final int minX, minY, maxX, maxY;
+    private long written;
+
+    public ClippedRaster(Raster target, Rectangle clip) {
+        this.target = target;
+        this.minX = Math.max(0, clip.x);
+        this.minY = Math.max(0, clip.y);
+        this.maxX = Math.min(target.getWidth(), clip.x + clip.width);
+        this.maxY = Math.min(target.getHeight(), clip.y + clip.height);
+    }
+
+    @Override
+    public void setPixel(int x, int y, int color) {
+        if (x >= minX && x < maxX && y >= minY && y < maxY) {
+            target.setPixel(x, y, color);
+            written++;
+        }
+    }
+
+    @Override
+    public int getPixel(int x, int y) {
+        return target.getPixel(x, y);
+    }
+
+    @Override
+    public int getWidth() {
+        return target.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return target.getHeight();
+    }
+
+    @Override
+    public void clear() {
+        target.fillRect(minX, minY, maxX - minX, maxY - minY, target.getBackground());
+        written += (long) Math.max(0, maxX - minX) * Math.max(0, maxY - minY);
+    }
+
+    @Override
+    public int getBackground() {
+        return target.getBackground();
+    }
+
+    @Override
+    public void fillSpan(int y, int x1, int x2, int color) {
+        if (y < minY || y >= maxY) return;
+
+        int from = Math.max(x1, minX);
+        int to = Math.min(x2, maxX - 1);
+        if (from > to) return;
+
+        target.fillSpan(y, from, to, color);
+        written += to - from + 1;
+    }
+
+    @Override
+    public void copyRow(int x, int y, int[] src, int srcOffset, int length) {
+        if (y < minY || y >= maxY) return;
+
+        if (x < minX) {
+            int skip = minX - x;
+            srcOffset += skip;
+            length -= skip;
+            x = minX;
+        }
+        length = Math.min(length, maxX - x);
+        if (length <= 0) return;
+
+        target.copyRow(x, y, src, srcOffset, length);
+        written += length;
+    }
+
+    @Override
+    public void fillRect(int x, int y, int width, int height, int color) {
+        int fromY = Math.max(y, minY);
+        int toY = Math.min(y + height, maxY);
+        for (int row = fromY; row < toY; row++) {
+            fillSpan(row, x, x + width - 1, color);
+        }
+    }
+
+    // Počet pixelů zapsaných přes tento výřez
+    public long getWritten() {
+        return written;
+    }
+}
@@ -3,16 +3,23 @@ package rasterize;
 import model.Line;
 import model.Point;
 import java.awt.Color;
+import java.awt.Rectangle;
 
 public abstract class LineRasterizer {
-    protected RasterBufferedImage raster;
+    protected Raster raster;
+    protected int clipMinX, clipMinY, clipMaxX, clipMaxY;
 
-    protected LineRasterizer(RasterBufferedImage raster) {
+    protected LineRasterizer(Raster raster) {
         this.raster = raster;
+        setClip(null);
     }
 
     public abstract void rasterize(int x1, int y1, int x2, int y2, Color c1, Color c2);
 
+    public void rasterize(int x1, int y1, int x2, int y2, int c1, int c2) {
+        rasterize(x1, y1, x2, y2, new Color(c1), new Color(c2));
+    }
+
     public void rasterize(Point p1, Point p2){
         rasterize(p1.getX(), p1.getY(), p2.getX(), p2.getY(), Color.white, Color.white);
     }
@@ -20,4 +27,25 @@ public abstract class LineRasterizer {
     public void rasterize(Line line) {
         rasterize(line.getX1(), line.getY1(), line.getX2(), line.getY2(), line.c1(), line.c2());
     }
-}
\ No newline at end of file
+
+    public void setClip(Rectangle clip) {
+        clipMinX = 0;
+        clipMinY = 0;
+        clipMaxX = raster.getWidth() - 1;
+        clipMaxY = raster.getHeight() - 1;
+        if (clip != null) {
+            clipMinX = Math.max(clipMinX, clip.x);
+            clipMinY = Math.max(clipMinY, clip.y);
+            clipMaxX = Math.min(clipMaxX, clip.x + clip.width - 1);
+            clipMaxY = Math.min(clipMaxY, clip.y + clip.height - 1);
+        }
+    }
+
+    protected static int firstStep(int start, int clipMin) {
+        return (clipMin <= start) ? 0 : clipMin - start;
+    }
+
+    protected static int lastStep(int start, int steps, int clipMax) {
+        return (clipMax >= start + steps) ? steps : clipMax - start;
+    }
+}
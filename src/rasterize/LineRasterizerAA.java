@@ -4,20 +4,29 @@ import java.awt.Color;
 
 // Algoritmus rasterizace: antialiasovaná metoda podle Xiaolin Wu
 // Postup algoritmu:
-// 1 - Spočítá sklon úsečky k = dy / dx (nebo naopak, když je úsečka strmá)
+// 1 - Spočítá sklon úsečky k = dy / dx (nebo naopak, když je úsečka strmá) v pevné řádové čárce 16.16;
+//     sklon a ideální souřadnice jsou long, takže nepřetečou ani pro souřadnice a délky nad 32767
 // 2 - Určí, po které ose bude krokovat buď po x (vodorovné úsečky), nebo po y (svislé/strmé úsečky)
-// 3 - Druhou souřadnici počítá z rovnice přímky jako reálné číslo (ideálníX / ideálníY)
-// 4 - Rozdělí intenzitu pixelu do dvou sousedních pixelů na vedlejší ose podle desetinné části, a ty vykreslí
+// 3 - Druhou souřadnici udržuje jako číslo v pevné řádové čárce a v každém kroku k ní přičte sklon (ideálníX / ideálníY)
+// 4 - Rozdělí intenzitu pixelu do dvou sousedních pixelů na vedlejší ose podle desetinné části
+//     a touto vahou smíchá barvu úsečky s barvou, která už v rastru je
+// 5 - Je-li pixel v rastru průhledný (rastr s alfa kanálem), skládá se operátorem over: váha je alfa úsečky,
+//     výsledná alfa = a_src + a_dst * (1 - a_src); na neprůhledném pixelu je to totéž jako běžné míchání
 
 
 public class LineRasterizerAA extends LineRasterizer {
-    public LineRasterizerAA(RasterBufferedImage raster) {
+    public LineRasterizerAA(Raster raster) {
         super(raster);
     }
 
     public void rasterize(int x1, int y1, int x2, int y2, Color c1, Color c2) {
+        rasterize(x1, y1, x2, y2, c1.getRGB(), c2.getRGB());
+    }
+
+    @Override
+    public void rasterize(int x1, int y1, int x2, int y2, int c1, int c2) {
         if (x1 == x2 && y1 == y2) {
-            setPixelSafe(x1, y1, c1);
+            blendPixel(x1, y1, c1, 255);
             return;
         }
 
@@ -32,35 +41,37 @@ public class LineRasterizerAA extends LineRasterizer {
                 tmp = y1;
                 y1 = y2;
                 y2 = tmp;
-                Color tc = c1;
+                tmp = c1;
                 c1 = c2;
-                c2 = tc;
+                c2 = tmp;
+                dx = -dx;
+                dy = -dy;
             }
-            float k = dx / (float) dy;
-            int steps = Math.abs(y2 - y1);
-            for (int i = 0; i <= steps; i++) {
-                int y = y1 + i;
-                float idealX = k * (y - y1) + x1;
-                int x = (int) Math.floor(idealX);
-                float decimal = idealX - x;
-                float weightLeft = 1.0f - decimal;
-                float weightRight = decimal;
-
-                Color base = lerpColor(c1, c2, (float) i / (float) steps);
-
-                {
-                    int r = Math.min(255, Math.max(0, Math.round(base.getRed() * weightLeft)));
-                    int g = Math.min(255, Math.max(0, Math.round(base.getGreen() * weightLeft)));
-                    int b = Math.min(255, Math.max(0, Math.round(base.getBlue() * weightLeft)));
-                    setPixelSafe(x, y, new Color(r, g, b));
-                }
-
-                {
-                    int r = Math.min(255, Math.max(0, Math.round(base.getRed() * weightRight)));
-                    int g = Math.min(255, Math.max(0, Math.round(base.getGreen() * weightRight)));
-                    int b = Math.min(255, Math.max(0, Math.round(base.getBlue() * weightRight)));
-                    setPixelSafe(x + 1, y, new Color(r, g, b));
-                }
+            long k = ((long) dx << 16) / dy;
+            int steps = dy;
+            int first = firstStep(y1, clipMinY);
+            int last = lastStep(y1, steps, clipMaxY);
+            long idealX = ((long) x1 << 16) + first * k;
+
+            int dr = (((c2 >> 16) & 0xFF) - ((c1 >> 16) & 0xFF) << 16) / steps;
+            int dg = (((c2 >> 8) & 0xFF) - ((c1 >> 8) & 0xFF) << 16) / steps;
+            int db = ((c2 & 0xFF) - (c1 & 0xFF) << 16) / steps;
+            int r = (c1 & 0xFF0000) + first * dr;
+            int g = ((c1 & 0xFF00) << 8) + first * dg;
+            int b = ((c1 & 0xFF) << 16) + first * db;
+
+            for (int y = y1 + first; y <= y1 + last; y++) {
+                int x = (int) (idealX >> 16);
+                int weightRight = (int) (idealX >> 8) & 0xFF;
+                int color = (r & 0xFF0000) | ((g >> 8) & 0xFF00) | (b >> 16);
+
+                blendPixel(x, y, color, 255 - weightRight);
+                blendPixel(x + 1, y, color, weightRight);
+
+                idealX += k;
+                r += dr;
+                g += dg;
+                b += db;
             }
         } else {
             if (x1 > x2) {
@@ -70,53 +81,71 @@ public class LineRasterizerAA extends LineRasterizer {
                 tmp = y1;
                 y1 = y2;
                 y2 = tmp;
-                Color tc = c1;
+                tmp = c1;
                 c1 = c2;
-                c2 = tc;
+                c2 = tmp;
+                dx = -dx;
+                dy = -dy;
             }
-            float k = dy / (float) dx;
-            float q = y1 - k * x1;
-            int steps = Math.abs(x2 - x1);
-            for (int i = 0; i <= steps; i++) {
-                int x = x1 + i;
-                float idealY = k * x + q;
-                int y = (int) Math.floor(idealY);
-                float decimal = idealY - y;
-                float weightTop = 1.0f - decimal;
-                float weightBot = decimal;
-
-                Color base = lerpColor(c1, c2, (float) i / (float) steps);
-
-                {
-                    int r = Math.min(255, Math.max(0, Math.round(base.getRed() * weightTop)));
-                    int g = Math.min(255, Math.max(0, Math.round(base.getGreen() * weightTop)));
-                    int b = Math.min(255, Math.max(0, Math.round(base.getBlue() * weightTop)));
-                    setPixelSafe(x, y, new Color(r, g, b));
-                }
-
-                {
-                    int r = Math.min(255, Math.max(0, Math.round(base.getRed() * weightBot)));
-                    int g = Math.min(255, Math.max(0, Math.round(base.getGreen() * weightBot)));
-                    int b = Math.min(255, Math.max(0, Math.round(base.getBlue() * weightBot)));
-                    setPixelSafe(x, y + 1, new Color(r, g, b));
-                }
+            long k = ((long) dy << 16) / dx;
+            int steps = dx;
+            int first = firstStep(x1, clipMinX);
+            int last = lastStep(x1, steps, clipMaxX);
+            long idealY = ((long) y1 << 16) + first * k;
+
+            int dr = (((c2 >> 16) & 0xFF) - ((c1 >> 16) & 0xFF) << 16) / steps;
+            int dg = (((c2 >> 8) & 0xFF) - ((c1 >> 8) & 0xFF) << 16) / steps;
+            int db = ((c2 & 0xFF) - (c1 & 0xFF) << 16) / steps;
+            int r = (c1 & 0xFF0000) + first * dr;
+            int g = ((c1 & 0xFF00) << 8) + first * dg;
+            int b = ((c1 & 0xFF) << 16) + first * db;
+
+            for (int x = x1 + first; x <= x1 + last; x++) {
+                int y = (int) (idealY >> 16);
+                int weightBot = (int) (idealY >> 8) & 0xFF;
+                int color = (r & 0xFF0000) | ((g >> 8) & 0xFF00) | (b >> 16);
+
+                blendPixel(x, y, color, 255 - weightBot);
+                blendPixel(x, y + 1, color, weightBot);
+
+                idealY += k;
+                r += dr;
+                g += dg;
+                b += db;
             }
         }
     }
 
-    private void setPixelSafe(int x, int y, Color c) {
-        int w = raster.getWidth();
-        int h = raster.getHeight();
-        if (x >= 0 && x < w && y >= 0 && y < h) {
-            raster.setPixel(x, y, c.getRGB());
+    private void blendPixel(int x, int y, int color, int coverage) {
+        if (coverage == 0 || x < 0 || y < 0 || x >= raster.getWidth() || y >= raster.getHeight()) return;
+
+        int weight = coverage + (coverage >> 7);
+        int dst = raster.getPixel(x, y);
+        if (dst >>> 24 != 0xFF) {
+            blendOver(x, y, color, coverage, dst);
+            return;
         }
+
+        int dr = (dst >> 16) & 0xFF;
+        int dg = (dst >> 8) & 0xFF;
+        int db = dst & 0xFF;
+        int r = dr + (((((color >> 16) & 0xFF) - dr) * weight) >> 8);
+        int g = dg + (((((color >> 8) & 0xFF) - dg) * weight) >> 8);
+        int b = db + ((((color & 0xFF) - db) * weight) >> 8);
+
+        raster.setPixel(x, y, 0xFF000000 | (r << 16) | (g << 8) | b);
     }
 
-    private Color lerpColor(Color c1, Color c2, float t) {
-        t = Math.max(0, Math.min(1, t));
-        int r = (int) (c1.getRed() + (c2.getRed() - c1.getRed()) * t);
-        int g = (int) (c1.getGreen() + (c2.getGreen() - c1.getGreen()) * t);
-        int b = (int) (c1.getBlue() + (c2.getBlue() - c1.getBlue()) * t);
-        return new Color(r, g, b);
+    // Nepremultiplikované ARGB: c = (c_src * a_src + c_dst * a_dst * (1 - a_src)) / a
+    private void blendOver(int x, int y, int color, int srcAlpha, int dst) {
+        int dstAlpha = dst >>> 24;
+        int dstWeight = dstAlpha * (255 - srcAlpha) / 255;
+        int alpha = srcAlpha + dstWeight;
+
+        int r = ((((color >> 16) & 0xFF) * srcAlpha) + ((dst >> 16) & 0xFF) * dstWeight) / alpha;
+        int g = ((((color >> 8) & 0xFF) * srcAlpha) + ((dst >> 8) & 0xFF) * dstWeight) / alpha;
+        int b = (((color & 0xFF) * srcAlpha) + (dst & 0xFF) * dstWeight) / alpha;
+
+        raster.setPixel(x, y, (alpha << 24) | (r << 16) | (g << 8) | b);
     }
-}
\ No newline at end of file
+}
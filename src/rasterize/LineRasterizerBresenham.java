@@ -0,0 +1,86 @@
+package rasterize;
+
+import java.awt.Color;
+
+// Algoritmus rasterizace: Bresenhamův algoritmus (celočíselná aritmetika)
+// Postup algoritmu:
+// 1 - Určí řídicí osu podle větší z hodnot |dx| a |dy| a úsečku otočí tak, aby po ní krokoval kladně
+// 2 - Po řídicí ose krokuje o 1, na vedlejší ose udržuje celočíselnou chybu err a při jejím přetečení posune souřadnici o 1
+// 3 - Barvu interpoluje po složkách v pevné řádové čárce 16.16, v každém kroku jen přičte konstantní přírůstek
+// 4 - Kroky mimo ořezový obdélník na řídicí ose přeskočí, stav chyby v prvním viditelném kroku dopočítá přímo
+// 5 - Vykreslí pixel, během celé úsečky nevytvoří žádný objekt
+
+public class LineRasterizerBresenham extends LineRasterizer {
+    public LineRasterizerBresenham(Raster raster) {
+        super(raster);
+    }
+
+    public void rasterize(int x1, int y1, int x2, int y2, Color c1, Color c2) {
+        rasterize(x1, y1, x2, y2, c1.getRGB(), c2.getRGB());
+    }
+
+    @Override
+    public void rasterize(int x1, int y1, int x2, int y2, int c1, int c2) {
+        if (x1 == x2 && y1 == y2) {
+            raster.setPixel(x1, y1, c1);
+            return;
+        }
+
+        int dx = x2 - x1;
+        int dy = y2 - y1;
+        boolean steep = Math.abs(dy) > Math.abs(dx);
+
+        if ((steep && y1 > y2) || (!steep && x1 > x2)) {
+            int tmp = x1;
+            x1 = x2;
+            x2 = tmp;
+            tmp = y1;
+            y1 = y2;
+            y2 = tmp;
+            tmp = c1;
+            c1 = c2;
+            c2 = tmp;
+            dx = -dx;
+            dy = -dy;
+        }
+
+        int major = steep ? dy : dx;
+        int minor = Math.abs(steep ? dx : dy);
+        int minorStep = Integer.signum(steep ? dx : dy);
+
+        int dr = (((c2 >> 16) & 0xFF) - ((c1 >> 16) & 0xFF) << 16) / major;
+        int dg = (((c2 >> 8) & 0xFF) - ((c1 >> 8) & 0xFF) << 16) / major;
+        int db = ((c2 & 0xFF) - (c1 & 0xFF) << 16) / major;
+
+        int first = steep ? firstStep(y1, clipMinY) : firstStep(x1, clipMinX);
+        int last = steep ? lastStep(y1, major, clipMaxY) : lastStep(x1, major, clipMaxX);
+        if (first > last) return;
+
+        int minorOffset = (int) Math.floorDiv(2L * first * minor + major - (minorStep > 0 ? 0 : 1), 2L * major);
+        int err = (int) (2L * minor * (first + 1) - major - 2L * major * minorOffset);
+        int x = steep ? x1 + minorStep * minorOffset : x1 + first;
+        int y = steep ? y1 + first : y1 + minorStep * minorOffset;
+
+        int r = (c1 & 0xFF0000) + first * dr;
+        int g = ((c1 & 0xFF00) << 8) + first * dg;
+        int b = ((c1 & 0xFF) << 16) + first * db;
+
+        for (int i = first; i <= last; i++) {
+            raster.setPixel(x, y, 0xFF000000 | (r & 0xFF0000) | ((g >> 8) & 0xFF00) | (b >> 16));
+
+            if (err > 0 || (err == 0 && minorStep > 0)) {
+                if (steep) x += minorStep;
+                else y += minorStep;
+                err -= 2 * major;
+            }
+            err += 2 * minor;
+
+            if (steep) y++;
+            else x++;
+
+            r += dr;
+            g += dg;
+            b += db;
+        }
+    }
+}
@@ -10,7 +10,7 @@ import java.awt.Color;
 // 4 - Zaokrouhlí souřadnici na druhé ose na nejbližší pixel a ten vykreslí
 
 public class LineRasterizerTrivial extends LineRasterizer {
-    public LineRasterizerTrivial(RasterBufferedImage raster) {
+    public LineRasterizerTrivial(Raster raster) {
         super(raster);
     }
 
@@ -37,7 +37,8 @@ public class LineRasterizerTrivial extends LineRasterizer {
             }
             float k = dx / (float) dy;
             int steps = Math.abs(y2 - y1);
-            for (int i = 0; i <= steps; i++) {
+            int last = lastStep(y1, steps, clipMaxY);
+            for (int i = firstStep(y1, clipMinY); i <= last; i++) {
                 int y = y1 + i;
                 int x = Math.round(k * (y - y1) + x1);
                 Color color = lerpColor(c1, c2, (float) i / steps);
@@ -58,7 +59,8 @@ public class LineRasterizerTrivial extends LineRasterizer {
             float k = dy / (float) dx;
             float q = y1 - k * x1;
             int steps = Math.abs(x2 - x1);
-            for (int i = 0; i <= steps; i++) {
+            int last = lastStep(x1, steps, clipMaxX);
+            for (int i = firstStep(x1, clipMinX); i <= last; i++) {
                 int x = x1 + i;
                 int y = Math.round(k * x + q);
                 Color color = lerpColor(c1, c2, (float) i / steps);
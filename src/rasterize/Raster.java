@@ -6,4 +6,8 @@ public interface Raster {
     int getWidth();
     int getHeight();
     void clear();
+    int getBackground();
+    void fillSpan(int y, int x1, int x2, int color);
+    void copyRow(int x, int y, int[] src, int srcOffset, int length);
+    void fillRect(int x, int y, int width, int height, int color);
 }
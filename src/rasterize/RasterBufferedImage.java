@@ -2,45 +2,116 @@ package rasterize;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
 
 public class RasterBufferedImage implements Raster {
 
     private final BufferedImage image;
+    private final int[] pixels;
+    private final int width;
+    private final int height;
+    private final boolean transparent;
 
     public RasterBufferedImage(int width, int height) {
-        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        this(width, height, false);
+    }
+
+    // transparent: rastr s alfa kanálem (TYPE_INT_ARGB), pozadí je průhledné a getPixel vrací i alfu
+    public RasterBufferedImage(int width, int height, boolean transparent) {
+        this.width = width;
+        this.height = height;
+        this.transparent = transparent;
+        image = new BufferedImage(width, height, transparent ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
     }
 
     @Override
     public void setPixel(int x, int y, int color) {
-        if (x >= 0 && x < image.getWidth() && y >= 0 && y < image.getHeight()) {
-            image.setRGB(x, y, color);
+        if (x >= 0 && x < width && y >= 0 && y < height) {
+            pixels[y * width + x] = color;
         }
     }
 
+    // Souřadnice mimo rastr vyhodí výjimku stejně jako BufferedImage.getRGB (index do pole by x přelil do vedlejšího řádku)
     @Override
     public int getPixel(int x, int y) {
-        return image.getRGB(x, y);
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new ArrayIndexOutOfBoundsException("pixel " + x + ", " + y + " outside raster " + width + " x " + height);
+        }
+        int pixel = pixels[y * width + x];
+        return transparent ? pixel : pixel | 0xFF000000;
     }
 
     @Override
     public int getWidth() {
-        return image.getWidth();
+        return width;
     }
 
     @Override
     public int getHeight() {
-        return image.getHeight();
+        return height;
     }
 
     @Override
     public void clear() {
-        Graphics g = image.getGraphics();
-        g.setColor(Color.BLACK);
-        g.fillRect(0, 0, image.getWidth(), image.getHeight());
-        g.dispose();
+        fillRect(0, 0, width, height, getBackground());
+    }
+
+    @Override
+    public int getBackground() {
+        return transparent ? 0 : Color.BLACK.getRGB();
+    }
+
+    @Override
+    public void fillSpan(int y, int x1, int x2, int color) {
+        if (y < 0 || y >= height) return;
+
+        int from = Math.max(x1, 0);
+        int to = Math.min(x2, width - 1);
+        if (from > to) return;
+
+        int row = y * width;
+        Arrays.fill(pixels, row + from, row + to + 1, color);
+    }
+
+    @Override
+    public void copyRow(int x, int y, int[] src, int srcOffset, int length) {
+        if (y < 0 || y >= height) return;
+
+        if (x < 0) {
+            srcOffset -= x;
+            length += x;
+            x = 0;
+        }
+        length = Math.min(length, width - x);
+        if (length <= 0) return;
+
+        System.arraycopy(src, srcOffset, pixels, y * width + x, length);
     }
 
+    @Override
+    public void fillRect(int x, int y, int width, int height, int color) {
+        int fromY = Math.max(y, 0);
+        int toY = Math.min(y + height, this.height);
+        for (int row = fromY; row < toY; row++) {
+            fillSpan(row, x, x + width - 1, color);
+        }
+    }
+
+    // Zkopíruje jen obdélník region (ořezaný na oba rastry), rastry musí mít stejnou šířku řádku
+    public void copyFrom(RasterBufferedImage source, Rectangle region) {
+        Rectangle area = region.intersection(new Rectangle(0, 0, Math.min(width, source.width), Math.min(height, source.height)));
+        if (area.isEmpty()) return;
+
+        for (int y = area.y; y < area.y + area.height; y++) {
+            System.arraycopy(source.pixels, y * source.width + area.x, pixels, y * width + area.x, area.width);
+        }
+    }
+
+    public int[] getPixels() {
+        return pixels;
+    }
 
     public BufferedImage getImage() {
         return image;
@@ -0,0 +1,42 @@
+package render;
+
+import java.awt.Rectangle;
+
+public class DirtyRegion {
+    private final int margin;
+    private Rectangle bounds;
+    private boolean full;
+
+    public DirtyRegion(int margin) {
+        this.margin = margin;
+    }
+
+    public void add(Rectangle r) {
+        if (full || r == null || r.isEmpty()) return;
+
+        Rectangle grown = new Rectangle(r.x - margin, r.y - margin, r.width + 2 * margin, r.height + 2 * margin);
+        bounds = (bounds == null) ? grown : bounds.union(grown);
+    }
+
+    public void addAll() {
+        full = true;
+        bounds = null;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    public boolean isEmpty() {
+        return !full && bounds == null;
+    }
+
+    public Rectangle getBounds() {
+        return bounds;
+    }
+
+    public void clear() {
+        full = false;
+        bounds = null;
+    }
+}
@@ -0,0 +1,29 @@
+package render;
+
+import rasterize.RasterBufferedImage;
+
+public class DoubleBuffer {
+    private RasterBufferedImage front;
+    private RasterBufferedImage back;
+
+    public DoubleBuffer(int width, int height) {
+        front = new RasterBufferedImage(width, height);
+        back = new RasterBufferedImage(width, height);
+        front.clear();
+        back.clear();
+    }
+
+    public synchronized RasterBufferedImage getFront() {
+        return front;
+    }
+
+    public RasterBufferedImage getBack() {
+        return back;
+    }
+
+    public synchronized void swap() {
+        RasterBufferedImage tmp = front;
+        front = back;
+        back = tmp;
+    }
+}
@@ -0,0 +1,66 @@
+package render;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+
+// Sběr měření snímků (jeden záznam za složený snímek z RenderThread, nebo za snímek, který změnil jen náhled)
+// Drží posledních MAX_SAMPLES snímků pro export do CSV, percentily se počítají z posledních WINDOW snímků.
+// Zapisuje vlákno vykreslování i vlákno Swing, čte vlákno Swing, proto jsou metody synchronizované.
+
+public class FrameProfiler {
+    public static final int WINDOW = 120;
+    private static final int MAX_SAMPLES = 100_000;
+
+    private final ArrayDeque<FrameSample> samples = new ArrayDeque<>();
+
+    public synchronized void record(FrameSample sample) {
+        if (samples.size() == MAX_SAMPLES) samples.removeFirst();
+        samples.addLast(sample);
+    }
+
+    // p-tý percentil (0 .. 100) celkového času snímku v milisekundách za posledních WINDOW snímků, NaN bez snímků
+    public synchronized double percentileMillis(double p) {
+        int count = Math.min(samples.size(), WINDOW);
+        if (count == 0) return Double.NaN;
+
+        long[] totals = new long[count];
+        Iterator<FrameSample> it = samples.descendingIterator();
+        for (int i = 0; i < count; i++) {
+            totals[i] = it.next().totalNanos();
+        }
+        Arrays.sort(totals);
+
+        int index = (int) Math.ceil(p / 100.0 * count) - 1;
+        return totals[Math.clamp(index, 0, count - 1)] / 1e6;
+    }
+
+    public synchronized int size() {
+        return samples.size();
+    }
+
+    public synchronized FrameSample getLast() {
+        return samples.peekLast();
+    }
+
+    // Zapíše všechny držené snímky, vrací jejich počet
+    public synchronized int exportCsv(Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write(FrameSample.CSV_HEADER);
+            writer.newLine();
+            for (FrameSample sample : samples) {
+                writer.write(sample.toCsv());
+                writer.newLine();
+            }
+        }
+        return samples.size();
+    }
+
+    public synchronized void clear() {
+        samples.clear();
+    }
+}
@@ -0,0 +1,40 @@
+package render;
+
+// Měření jednoho snímku, časy v nanosekundách
+// prepare = rozřazení do dlaždic a hledání v SpanCache, spans = výpočet chybějících úseků, tiles = paralelní
+// vykreslení dlaždic, seed = seed fill; clear, lines a fills jsou součty časů ze všech dlaždic (přes všechna vlákna)
+// composite = kopie předního bufferu a skládání vrstev; u snímku z vrstev jsou ostatní fáze a počty součtem
+// přes vrstvy překreslené v tomto snímku
+// preview = sestavení a vykreslení náhledu na vlákně Swing (je i v total); snímek, který změnil jen náhled,
+// má ostatní fáze nulové (preview())
+public record FrameSample(long endMillis, boolean full, long regionPixels,
+                          long totalNanos, long prepareNanos, long spansNanos, long tilesNanos, long seedNanos,
+                          long compositeNanos, long previewNanos, long clearNanos, long linesNanos, long fillsNanos,
+                          long pixelsWritten, int tiles, int lines, int fills, int spanMisses, int seedFills) {
+
+    public static final String CSV_HEADER = "end_ms,full,region_px,total_ns,prepare_ns,spans_ns,tiles_ns,seed_ns,composite_ns,preview_ns,"
+            + "clear_cpu_ns,lines_cpu_ns,fills_cpu_ns,pixels_written,tiles,lines,fills,span_misses,seed_fills";
+
+    // Snímek, ve kterém se změnil jen náhled
+    public static FrameSample preview(long previewNanos, long regionPixels) {
+        return new FrameSample(System.currentTimeMillis(), false, regionPixels, previewNanos, 0, 0, 0, 0, 0, previewNanos,
+                0, 0, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    // Sečte fáze a počty dvou měření (endMillis, full a regionPixels bere z tohoto)
+    public FrameSample plus(FrameSample other) {
+        return new FrameSample(endMillis, full, regionPixels,
+                totalNanos + other.totalNanos, prepareNanos + other.prepareNanos, spansNanos + other.spansNanos,
+                tilesNanos + other.tilesNanos, seedNanos + other.seedNanos, compositeNanos + other.compositeNanos,
+                previewNanos + other.previewNanos,
+                clearNanos + other.clearNanos, linesNanos + other.linesNanos, fillsNanos + other.fillsNanos,
+                pixelsWritten + other.pixelsWritten, tiles + other.tiles, lines + other.lines, fills + other.fills,
+                spanMisses + other.spanMisses, seedFills + other.seedFills);
+    }
+
+    public String toCsv() {
+        return endMillis + "," + full + "," + regionPixels + "," + totalNanos + "," + prepareNanos + "," + spansNanos + ","
+                + tilesNanos + "," + seedNanos + "," + compositeNanos + "," + previewNanos + "," + clearNanos + "," + linesNanos + "," + fillsNanos + ","
+                + pixelsWritten + "," + tiles + "," + lines + "," + fills + "," + spanMisses + "," + seedFills;
+    }
+}
@@ -0,0 +1,138 @@
+package render;
+
+import rasterize.RasterBufferedImage;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+// Vykreslení dokumentu po vrstvách s uloženými rastry
+// Postup:
+// 1 - Každá vrstva má vlastní průhledný rastr (ARGB) a vlastní SceneRenderer (se svou SpanCache a SeedMaskCache);
+//     vrstva se překreslí jen tehdy, když pro ni přišla nová scéna, a jen v poškozené oblasti
+// 2 - Oblast ke složení je sjednocení překreslených oblastí viditelných vrstev; když se změnilo pořadí,
+//     počet nebo viditelnost vrstev, skládá se celý obraz
+// 3 - Skládání: každý řádek oblasti se v cílovém rastru vyplní černou a viditelné vrstvy se přes něj postupně položí
+//     zdola nahoru (operátor over); průhledné pixely se přeskočí, neprůhledné jen zkopírují, ostatní se smíchají
+//     po složkách; pásy řádků se skládají paralelně
+// 4 - Rastry vrstev, které už v dokumentu nejsou, se zahodí
+// Třídu používá jen vlákno RenderThread.
+
+public class LayerRenderer {
+    private static final class CachedLayer {
+        final SceneRenderer renderer = new SceneRenderer();
+        final RasterBufferedImage raster;
+        boolean visible;
+
+        CachedLayer(int width, int height) {
+            raster = new RasterBufferedImage(width, height, true);
+            raster.clear();
+        }
+    }
+
+    private final int width;
+    private final int height;
+    private final HashMap<Integer, CachedLayer> cache = new HashMap<>();
+    private int[] order = new int[0];
+    private FrameSample layerSample;
+
+    public LayerRenderer(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    // Překreslí změněné vrstvy, vrací oblast, kterou je potřeba znovu složit (null = nic se nezměnilo)
+    public Rectangle update(List<LayerScene> layers) {
+        Set<Integer> ids = new HashSet<>();
+        for (LayerScene layer : layers) ids.add(layer.id());
+        cache.keySet().retainAll(ids);
+
+        boolean structureChanged = layers.size() != order.length;
+        Rectangle region = null;
+        layerSample = null;
+
+        for (int i = 0; i < layers.size(); i++) {
+            LayerScene layer = layers.get(i);
+            CachedLayer cached = cache.get(layer.id());
+            if (cached == null) {
+                cached = new CachedLayer(width, height);
+                cache.put(layer.id(), cached);
+                structureChanged = true;
+            }
+            if (i >= order.length || order[i] != layer.id() || cached.visible != layer.visible()) {
+                structureChanged = true;
+            }
+            cached.visible = layer.visible();
+
+            if (layer.scene() != null) {
+                Rectangle painted = cached.renderer.render(layer.scene(), cached.raster, layer.dirty());
+                if (painted != null) {
+                    FrameSample sample = cached.renderer.getLastSample();
+                    layerSample = (layerSample == null) ? sample : layerSample.plus(sample);
+                    if (layer.visible()) region = (region == null) ? painted : region.union(painted);
+                }
+            }
+        }
+
+        order = layers.stream().mapToInt(LayerScene::id).toArray();
+        return structureChanged ? new Rectangle(0, 0, width, height) : region;
+    }
+
+    // Složí viditelné vrstvy do oblasti region cílového rastru; řádky jsou nezávislé, skládají se paralelně po pásech
+    public void composite(RasterBufferedImage target, Rectangle region) {
+        Rectangle area = region.intersection(new Rectangle(0, 0, width, height));
+        if (area.isEmpty()) return;
+
+        int[] dst = target.getPixels();
+        int black = Color.BLACK.getRGB();
+        int[][] sources = Arrays.stream(order).mapToObj(cache::get).filter(layer -> layer.visible)
+                .map(layer -> layer.raster.getPixels()).toArray(int[][]::new);
+
+        int bands = (area.height + SceneRenderer.TILE_SIZE - 1) / SceneRenderer.TILE_SIZE;
+        IntStream.range(0, bands).parallel().forEach(band -> {
+            int top = area.y + band * SceneRenderer.TILE_SIZE;
+            int bottom = Math.min(top + SceneRenderer.TILE_SIZE, area.y + area.height);
+            for (int y = top; y < bottom; y++) {
+                int start = y * width + area.x;
+                int end = start + area.width;
+                Arrays.fill(dst, start, end, black);
+                for (int[] src : sources) {
+                    blendRow(src, dst, start, end);
+                }
+            }
+        });
+    }
+
+    private static void blendRow(int[] src, int[] dst, int start, int end) {
+        for (int i = start; i < end; i++) {
+            int s = src[i];
+            int a = s >>> 24;
+            if (a == 0) continue;
+            if (a == 0xFF) {
+                dst[i] = s;
+                continue;
+            }
+            dst[i] = blend(s, dst[i], a);
+        }
+    }
+
+    // Cíl je neprůhledný, výsledek je s + (d - s) * (1 - alfa); w = a + a / 128 převede 0 .. 255 na 0 .. 256,
+    // takže se místo dělení 255 posouvá o 8 bitů
+    private static int blend(int s, int d, int a) {
+        int w = a + (a >> 7);
+        int rb = d & 0xFF00FF;
+        int g = d & 0x00FF00;
+        rb = (rb + ((((s & 0xFF00FF) - rb) * w) >> 8)) & 0xFF00FF;
+        g = (g + ((((s & 0x00FF00) - g) * w) >> 8)) & 0x00FF00;
+        return 0xFF000000 | rb | g;
+    }
+
+    // Součet měření vrstev překreslených posledním update (null = žádná se nepřekreslila)
+    public FrameSample getLayerSample() {
+        return layerSample;
+    }
+}
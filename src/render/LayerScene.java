@@ -0,0 +1,8 @@
+package render;
+
+import java.awt.Rectangle;
+
+// Stav jedné vrstvy předávaný RenderThread v pořadí skládání
+// scene == null: obsah vrstvy se nezměnil a použije se její uložený rastr; dirty == null: změnila se celá vrstva
+public record LayerScene(int id, boolean visible, Scene scene, Rectangle dirty) {
+}
@@ -0,0 +1,62 @@
+package render;
+
+import model.GeometryStore;
+import rasterize.LineRasterizer;
+import rasterize.LineRasterizerAA;
+import rasterize.LineRasterizerBresenham;
+import rasterize.RasterBufferedImage;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+// Vrstva náhledu (rozpracovaná úsečka, polygon, obdélník) nad statickou scénou
+// Postup:
+// 1 - Náhled se kreslí do průhledného ARGB rastru velikosti plátna, Panel ho skládá přes snímek statické scény
+// 2 - Při změně se vymaže jen obdélník předchozího náhledu a nakreslí se nové úsečky, cena tedy nezávisí
+//     na velikosti scény
+// 3 - Antialiasované úsečky se na průhledné pozadí skládají operátorem over (LineRasterizerAA)
+// Vrstvu mění i skládá jen vlákno Swing, zamykat není potřeba.
+
+public class PreviewLayer {
+    // Antialiasovaná úsečka zasahuje pixel za svůj obal
+    private static final int MARGIN = 2;
+
+    private final RasterBufferedImage raster;
+    private Rectangle bounds;
+
+    public PreviewLayer(int width, int height) {
+        raster = new RasterBufferedImage(width, height, true);
+        raster.clear();
+    }
+
+    // Nahradí náhled úsečkami scény (výplně se nekreslí), vrací oblast k překreslení, nebo null
+    public Rectangle update(Scene preview) {
+        Rectangle changed = bounds;
+        if (bounds != null) {
+            raster.fillRect(bounds.x, bounds.y, bounds.width, bounds.height, 0);
+        }
+
+        GeometryStore geometry = preview.geometry();
+        LineRasterizer rasterizer = preview.antialiasing() ? new LineRasterizerAA(raster) : new LineRasterizerBresenham(raster);
+        Rectangle next = null;
+        for (int i = 0; i < geometry.getLineCount(); i++) {
+            int x1 = geometry.getLineX1(i), y1 = geometry.getLineY1(i);
+            int x2 = geometry.getLineX2(i), y2 = geometry.getLineY2(i);
+            rasterizer.rasterize(x1, y1, x2, y2, geometry.getLineColor1(i), geometry.getLineColor2(i));
+
+            Rectangle line = new Rectangle(Math.min(x1, x2) - MARGIN, Math.min(y1, y2) - MARGIN,
+                    Math.abs(x2 - x1) + 2 * MARGIN + 1, Math.abs(y2 - y1) + 2 * MARGIN + 1);
+            next = next == null ? line : next.union(line);
+        }
+
+        bounds = next == null ? null : next.intersection(new Rectangle(0, 0, raster.getWidth(), raster.getHeight()));
+        if (bounds != null && bounds.isEmpty()) bounds = null;
+
+        if (changed == null) return bounds;
+        return bounds == null ? changed : changed.union(bounds);
+    }
+
+    public BufferedImage getImage() {
+        return raster.getImage();
+    }
+}
@@ -0,0 +1,148 @@
+package render;
+
+import rasterize.RasterBufferedImage;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class RenderThread implements Runnable {
+    private final LayerRenderer layerRenderer;
+    private final DoubleBuffer buffer;
+    private final Consumer<Rectangle> onFrame;
+    private final Thread thread;
+
+    // Scény a poškozené oblasti vrstev, které vlákno ještě nevykreslilo; novější scéna vrstvy nahradí starší,
+    // oblasti se sjednotí
+    private final HashMap<Integer, Scene> pendingScenes = new HashMap<>();
+    private final HashMap<Integer, DirtyRegion> pendingDamage = new HashMap<>();
+    private List<LayerScene> pendingLayers;
+    private long pendingPreviewNanos;
+    private boolean rendering;
+    private volatile FrameProfiler profiler;
+    // Oblast, kterou předchozí snímek složil do dnešního předního bufferu; zadní buffer se od předního liší jen v ní
+    private Rectangle previousRegion;
+
+    public RenderThread(DoubleBuffer buffer, Consumer<Rectangle> onFrame) {
+        this.buffer = buffer;
+        this.onFrame = onFrame;
+        this.layerRenderer = new LayerRenderer(buffer.getBack().getWidth(), buffer.getBack().getHeight());
+        this.thread = new Thread(this, "render");
+        this.thread.setDaemon(true);
+    }
+
+    // Nastaví, kam se mají předávat měření snímků (null = nikam); záznam je jeden za složený snímek
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    // layers jsou všechny vrstvy dokumentu v pořadí skládání; previewNanos je čas náhledu obnoveného ve stejném tiku,
+    // započte se do měření snímku (u sloučených odeslání se sčítá)
+    public synchronized void submit(List<LayerScene> layers, long previewNanos) {
+        pendingPreviewNanos += previewNanos;
+        for (LayerScene layer : layers) {
+            if (layer.scene() == null) continue;
+
+            pendingScenes.put(layer.id(), layer.scene());
+            DirtyRegion damage = pendingDamage.computeIfAbsent(layer.id(), id -> new DirtyRegion(0));
+            if (layer.dirty() == null) {
+                damage.addAll();
+            } else {
+                damage.add(layer.dirty());
+            }
+        }
+        pendingLayers = List.copyOf(layers);
+        notifyAll();
+    }
+
+    @Override
+    public void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<LayerScene> layers;
+            long previewNanos;
+
+            synchronized (this) {
+                while (pendingLayers == null) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                layers = new ArrayList<>(pendingLayers.size());
+                for (LayerScene layer : pendingLayers) {
+                    Scene scene = pendingScenes.get(layer.id());
+                    DirtyRegion damage = pendingDamage.get(layer.id());
+                    Rectangle dirty = (scene == null || damage.isFull()) ? null : damage.getBounds();
+                    layers.add(new LayerScene(layer.id(), layer.visible(), scene, dirty));
+                }
+                pendingLayers = null;
+                previewNanos = pendingPreviewNanos;
+                pendingPreviewNanos = 0;
+                pendingScenes.clear();
+                pendingDamage.clear();
+                rendering = true;
+            }
+
+            renderFrame(layers, previewNanos);
+
+            synchronized (this) {
+                rendering = false;
+            }
+        }
+    }
+
+    private void renderFrame(List<LayerScene> layers, long previewNanos) {
+        long start = System.nanoTime();
+        Rectangle region = layerRenderer.update(layers);
+        FrameProfiler profiler = this.profiler;
+        if (region == null) {
+            if (profiler != null && previewNanos > 0) profiler.record(FrameSample.preview(previewNanos, 0));
+            return;
+        }
+        long rendered = System.nanoTime();
+
+        // Zadní buffer je o snímek pozadu: doplní se z předního jen v oblasti předchozího snímku, oblast region
+        // skládání celou přepíše
+        RasterBufferedImage back = buffer.getBack();
+        boolean full = region.width >= back.getWidth() && region.height >= back.getHeight();
+        if (!full && previousRegion != null) {
+            back.copyFrom(buffer.getFront(), previousRegion);
+        }
+        layerRenderer.composite(back, region);
+        previousRegion = region;
+        long end = System.nanoTime();
+
+        if (profiler != null) {
+            profiler.record(frameSample(layerRenderer.getLayerSample(), full, region, end - start + previewNanos, end - rendered, previewNanos));
+        }
+
+        buffer.swap();
+        onFrame.accept(region);
+    }
+
+    // Fáze a počty jsou součtem přes překreslené vrstvy, celkový čas zahrnuje i kopii, skládání a náhled
+    private static FrameSample frameSample(FrameSample layers, boolean full, Rectangle region, long totalNanos, long compositeNanos,
+                                           long previewNanos) {
+        long regionPixels = (long) region.width * region.height;
+        if (layers == null) {
+            return new FrameSample(System.currentTimeMillis(), full, regionPixels, totalNanos, 0, 0, 0, 0, compositeNanos, previewNanos,
+                    0, 0, 0, 0, 0, 0, 0, 0, 0);
+        }
+        return new FrameSample(System.currentTimeMillis(), full, regionPixels, totalNanos,
+                layers.prepareNanos(), layers.spansNanos(), layers.tilesNanos(), layers.seedNanos(), compositeNanos, previewNanos,
+                layers.clearNanos(), layers.linesNanos(), layers.fillsNanos(),
+                layers.pixelsWritten(), layers.tiles(), layers.lines(), layers.fills(), layers.spanMisses(), layers.seedFills());
+    }
+
+    // Vlákno právě kreslí, nebo má vrstvy ve frontě
+    public synchronized boolean isBusy() {
+        return rendering || pendingLayers != null;
+    }
+}
@@ -0,0 +1,10 @@
+package render;
+
+import model.GeometryStore;
+import model.SeedFillData;
+
+import java.util.List;
+
+// Obrysy jsou úsečky v geometry (v pořadí kreslení), polygony v geometry jsou ScanLine výplně
+public record Scene(GeometryStore geometry, List<SeedFillData> seedFills, boolean antialiasing) {
+}
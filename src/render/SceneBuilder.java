@@ -0,0 +1,49 @@
+package render;
+
+import model.GeometryStore;
+import model.Line;
+import model.Polygon;
+import model.ScanLineData;
+import model.SeedFillData;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+// Sestavení scény, geometrie se rovnou kopíruje do primitivních polí, takže scéna nesdílí objekty modelu s editorem
+// Builder je jednorázový, build předá úložiště geometrie scéně
+public class SceneBuilder {
+    private final GeometryStore geometry = new GeometryStore();
+    private final ArrayList<SeedFillData> seedFills = new ArrayList<>();
+
+    public SceneBuilder addLine(Line line) {
+        geometry.addLine(line);
+        return this;
+    }
+
+    public SceneBuilder addLines(List<Line> lines) {
+        for (Line line : lines) {
+            geometry.addLine(line);
+        }
+        return this;
+    }
+
+    public SceneBuilder addOutline(Polygon polygon, Color c1, Color c2, boolean closed) {
+        geometry.addOutline(polygon, c1.getRGB(), c2.getRGB(), closed);
+        return this;
+    }
+
+    public SceneBuilder addScanLineFill(ScanLineData data) {
+        geometry.addPolygon(data.getPolygon(), data.getFillColor(), data.isUsePattern() ? GeometryStore.FLAG_PATTERN : 0);
+        return this;
+    }
+
+    public SceneBuilder addSeedFill(SeedFillData data) {
+        seedFills.add(data);
+        return this;
+    }
+
+    public Scene build(boolean antialiasing) {
+        return new Scene(geometry, new ArrayList<>(seedFills), antialiasing);
+    }
+}
@@ -0,0 +1,233 @@
+package render;
+
+import fill.Pattern;
+import fill.ScanLine;
+import fill.SpanList;
+import jfr.FrameEvent;
+import model.GeometryStore;
+import model.SeedFillData;
+import rasterize.ClippedRaster;
+import rasterize.LineRasterizer;
+import rasterize.LineRasterizerAA;
+import rasterize.LineRasterizerBresenham;
+import rasterize.Raster;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+// Vykreslení scény po dlaždicích
+// Postup algoritmu:
+// 1 - Překreslovanou oblast rozdělí na dlaždice TILE_SIZE x TILE_SIZE
+// 2 - Každou úsečku a každý vyplňovaný polygon zařadí podle jeho obdélníkového obalu do všech dlaždic, do kterých zasahuje
+//     (pořadí v dlaždici zůstává stejné jako pořadí ve scéně: nejdřív obrysy, potom ScanLine výplně)
+// 3 - Úseky ScanLine výplní bere ze SpanCache, spočítá (paralelně) jen polygony, které v cache nejsou
+// 4 - Dlaždice vykresluje paralelně, každá kreslí jen do svého výřezu rastru, takže není potřeba zamykat
+// 5 - Seed fill závisí na obsahu celého rastru, proto se provede až nakonec sekvenčně přes celý rastr;
+//     pokud se okolí vyplněné oblasti nezměnilo, jen se přehraje maska ze SeedMaskCache
+// Časy jednotlivých fází, zapsané pixely a počty primitiv posledního vykreslení vrací getLastSample().
+
+public class SceneRenderer {
+    public static final int TILE_SIZE = 64;
+
+    // Čísla snímků jsou společná pro všechny instance (vrstvy, BatchRender), události jednoho render mají stejné číslo
+    private static final AtomicLong FRAMES = new AtomicLong();
+
+    private final SpanCache spanCache = new SpanCache();
+    private final SeedMaskCache seedMasks = new SeedMaskCache();
+    private FrameSample lastSample;
+
+    // Součty za dlaždice jednoho snímku, dlaždice je přičítají souběžně
+    private static final class TileStats {
+        final LongAdder clearNanos = new LongAdder();
+        final LongAdder linesNanos = new LongAdder();
+        final LongAdder fillsNanos = new LongAdder();
+        final LongAdder pixels = new LongAdder();
+    }
+
+    public Rectangle render(Scene scene, Raster raster, Rectangle dirty) {
+        FrameEvent event = new FrameEvent();
+        event.begin();
+        long frame = FRAMES.incrementAndGet();
+        long frameStart = System.nanoTime();
+        Rectangle region = new Rectangle(0, 0, raster.getWidth(), raster.getHeight());
+        if (dirty != null && scene.seedFills().isEmpty()) {
+            region = region.intersection(dirty);
+        }
+        if (region.isEmpty()) return null;
+
+        GeometryStore geometry = scene.geometry();
+        int lineCount = geometry.getLineCount();
+        int fillCount = geometry.getPolygonCount();
+        int[] xs = geometry.getVertexXs();
+        int[] ys = geometry.getVertexYs();
+
+        int firstCol = region.x / TILE_SIZE;
+        int firstRow = region.y / TILE_SIZE;
+        int cols = (region.x + region.width - 1) / TILE_SIZE - firstCol + 1;
+        int rows = (region.y + region.height - 1) / TILE_SIZE - firstRow + 1;
+        Bin[] bins = new Bin[cols * rows];
+        int binnedLines = 0, binnedFills = 0;
+
+        for (int i = 0; i < lineCount; i++) {
+            int x1 = geometry.getLineX1(i), y1 = geometry.getLineY1(i);
+            int x2 = geometry.getLineX2(i), y2 = geometry.getLineY2(i);
+            if (addToBins(bins, i, Math.min(x1, x2) - 1, Math.min(y1, y2) - 1, Math.max(x1, x2) + 1, Math.max(y1, y2) + 1,
+                    region, firstCol, firstRow, cols)) binnedLines++;
+        }
+
+        SpanList[] spans = new SpanList[fillCount];
+        Pattern[] patterns = new Pattern[fillCount];
+        int[] misses = new int[fillCount];
+        int missCount = 0;
+        spanCache.beginFrame();
+        for (int j = 0; j < fillCount; j++) {
+            int start = geometry.getPolygonStart(j);
+            int end = start + geometry.getPolygonSize(j);
+            if (start == end) continue;
+
+            int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+            int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+            for (int v = start; v < end; v++) {
+                minX = Math.min(minX, xs[v]);
+                minY = Math.min(minY, ys[v]);
+                maxX = Math.max(maxX, xs[v]);
+                maxY = Math.max(maxY, ys[v]);
+            }
+
+            boolean binned = addToBins(bins, lineCount + j, minX - 1, minY - 1, maxX + 1, maxY + 1,
+                    region, firstCol, firstRow, cols);
+            if (binned) {
+                binnedFills++;
+                if (geometry.isPolygonPattern(j)) patterns[j] = ScanLine.defaultPattern(geometry.getPolygonColor(j));
+                spans[j] = spanCache.get(geometry, j, raster.getHeight());
+                if (spans[j] == null) misses[missCount++] = j;
+            }
+        }
+
+        long prepared = System.nanoTime();
+        IntStream.range(0, missCount).parallel().forEach(m -> spans[misses[m]] = SpanCache.compute(geometry, misses[m], raster.getHeight(), frame));
+        for (int m = 0; m < missCount; m++) {
+            spanCache.put(geometry, misses[m], raster.getHeight(), spans[misses[m]]);
+        }
+        spanCache.evictIdle();
+        long spansDone = System.nanoTime();
+
+        Rectangle tileRegion = region;
+        TileStats stats = new TileStats();
+        IntStream.range(0, bins.length).parallel().forEach(tile -> {
+            Rectangle tileRect = new Rectangle((firstCol + tile % cols) * TILE_SIZE, (firstRow + tile / cols) * TILE_SIZE, TILE_SIZE, TILE_SIZE)
+                    .intersection(tileRegion);
+            renderTile(scene, raster, tileRect, bins[tile], spans, patterns, stats);
+        });
+        long tilesDone = System.nanoTime();
+
+        List<SeedFillData> seedFills = scene.seedFills();
+        long seedPixels = 0;
+        seedMasks.beginFrame(dirty, seedFills.size(), raster);
+        for (int i = 0; i < seedFills.size(); i++) {
+            seedPixels += seedMasks.fill(frame, i, seedFills.get(i), raster);
+        }
+        seedMasks.retain(seedFills.size());
+        long end = System.nanoTime();
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.frame = frame;
+            event.full = dirty == null;
+            event.regionPixels = (long) region.width * region.height;
+            event.tiles = bins.length;
+            event.lines = binnedLines;
+            event.fills = binnedFills;
+            event.spanMisses = missCount;
+            event.seedFills = seedFills.size();
+            event.pixelsWritten = stats.pixels.sum() + seedPixels;
+            event.commit();
+        }
+
+        lastSample = new FrameSample(System.currentTimeMillis(), dirty == null, (long) region.width * region.height,
+                end - frameStart, prepared - frameStart, spansDone - prepared, tilesDone - spansDone, end - tilesDone, 0, 0,
+                stats.clearNanos.sum(), stats.linesNanos.sum(), stats.fillsNanos.sum(),
+                stats.pixels.sum() + seedPixels, bins.length, binnedLines, binnedFills, missCount, seedFills.size());
+        return region;
+    }
+
+    // Měření posledního render, které něco vykreslilo (null před prvním snímkem)
+    public FrameSample getLastSample() {
+        return lastSample;
+    }
+
+    // Položky dlaždice jsou seřazené, nejdřív úsečky a pak výplně, takže stačí změřit dva úseky
+    private void renderTile(Scene scene, Raster raster, Rectangle tileRect, Bin bin, SpanList[] spans, Pattern[] patterns,
+                            TileStats stats) {
+        long start = System.nanoTime();
+        ClippedRaster view = new ClippedRaster(raster, tileRect);
+        view.clear();
+        long cleared = System.nanoTime();
+        stats.clearNanos.add(cleared - start);
+        if (bin == null) {
+            stats.pixels.add(view.getWritten());
+            return;
+        }
+
+        LineRasterizer rasterizer = scene.antialiasing() ? new LineRasterizerAA(view) : new LineRasterizerBresenham(view);
+        rasterizer.setClip(tileRect);
+
+        GeometryStore geometry = scene.geometry();
+        int lineCount = geometry.getLineCount();
+        long linesDone = -1;
+        for (int i = 0; i < bin.size; i++) {
+            int item = bin.items[i];
+            if (item < lineCount) {
+                rasterizer.rasterize(geometry.getLineX1(item), geometry.getLineY1(item), geometry.getLineX2(item), geometry.getLineY2(item),
+                        geometry.getLineColor1(item), geometry.getLineColor2(item));
+            } else {
+                if (linesDone < 0) linesDone = System.nanoTime();
+                int fill = item - lineCount;
+                int color = geometry.getPolygonColor(fill);
+                ScanLine.drawOutline(rasterizer, geometry.getVertexXs(), geometry.getVertexYs(),
+                        geometry.getPolygonStart(fill), geometry.getPolygonSize(fill), color);
+                ScanLine.replaySpans(view, spans[fill], tileRect.y, tileRect.y + tileRect.height, color, patterns[fill]);
+            }
+        }
+
+        long end = System.nanoTime();
+        if (linesDone < 0) linesDone = end;
+        stats.linesNanos.add(linesDone - cleared);
+        stats.fillsNanos.add(end - linesDone);
+        stats.pixels.add(view.getWritten());
+    }
+
+    private static boolean addToBins(Bin[] bins, int item, int minX, int minY, int maxX, int maxY,
+                                     Rectangle region, int firstCol, int firstRow, int cols) {
+        minX = Math.max(minX, region.x);
+        minY = Math.max(minY, region.y);
+        maxX = Math.min(maxX, region.x + region.width - 1);
+        maxY = Math.min(maxY, region.y + region.height - 1);
+        if (minX > maxX || minY > maxY) return false;
+
+        for (int row = minY / TILE_SIZE; row <= maxY / TILE_SIZE; row++) {
+            for (int col = minX / TILE_SIZE; col <= maxX / TILE_SIZE; col++) {
+                int tile = (row - firstRow) * cols + (col - firstCol);
+                if (bins[tile] == null) bins[tile] = new Bin();
+                bins[tile].add(item);
+            }
+        }
+        return true;
+    }
+
+    private static final class Bin {
+        private int[] items = new int[8];
+        private int size;
+
+        void add(int item) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = item;
+        }
+    }
+}
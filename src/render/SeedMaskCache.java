@@ -0,0 +1,156 @@
+package render;
+
+import fill.SeedFill;
+import fill.SpanList;
+import model.FillMode;
+import model.Point;
+import model.SeedFillData;
+import rasterize.Raster;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.BitSet;
+
+// Přehrávání seed fill z uložené masky
+// Postup:
+// 1 - Při prvním vyplnění se vybarvené úseky (run-length maska po řádcích) zaznamenají, spolu s nimi obdélník
+//     hashRect = obal vybarvené oblasti zvětšený o 1 pixel (vyplnění nikdy nečte pixel mimo oblast a její okraj)
+// 2 - K masce se uloží hash obsahu hashRect před vyplněním; vybarvené pixely měly všechny cílovou barvu
+//     (barvu startovního pixelu), ostatní pixely vyplnění nezměnilo, takže jde spočítat až po vyplnění
+// 3 - Při dalším snímku (stejné parametry vyplnění i velikost rastru) se hashRect porovná s oblastí changed:
+//     na začátku snímku je to poškozená oblast scény (dirty, null = celý rastr), rastr se před seed fill kreslí
+//     celý znovu, ale mimo dirty se obsah nezměnil; když se hashRect s changed nepřekrývá, maska se přehraje
+//     bez čtení pixelů
+// 4 - Při překryvu se spočítá hash aktuálního obsahu hashRect; když se shoduje, maska se také jen přehraje
+// 5 - Jinak se vyplnění spustí znovu a maska se nahradí; stará i nová hashRect se přidají do changed,
+//     protože vyplnění změnilo vstup pro další seed fill ve scéně
+// Záznamy odpovídají pořadí seed fill ve scéně, každý se porovnává se stejným indexem.
+
+public class SeedMaskCache {
+    private static final class Entry {
+        SeedFillData data;
+        int width;
+        int height;
+        Rectangle hashRect;
+        long hash;
+        SpanList spans;
+    }
+
+    private final ArrayList<Entry> entries = new ArrayList<>();
+    private Rectangle changed = new Rectangle();
+
+    // Oblast rastru, kde se obsah mohl od minulého snímku změnit (null = všude); při změně počtu seed fill se
+    // posunou indexy, takže se nedá věřit ničemu
+    public void beginFrame(Rectangle dirty, int count, Raster raster) {
+        Rectangle bounds = new Rectangle(0, 0, raster.getWidth(), raster.getHeight());
+        changed = (dirty == null || count != entries.size()) ? bounds : bounds.intersection(dirty);
+    }
+
+    // Vrací počet vybarvených pixelů; frame se jen zapíše do SeedFillEvent
+    public long fill(long frame, int index, SeedFillData data, Raster raster) {
+        while (entries.size() <= index) entries.add(null);
+
+        // Start mimo rastr nic nevybarví, SeedFill se vůbec nevytváří
+        int startX = data.getStartPoint().getX();
+        int startY = data.getStartPoint().getY();
+        if (startX < 0 || startY < 0 || startX >= raster.getWidth() || startY >= raster.getHeight()) {
+            Entry old = entries.set(index, null);
+            if (old != null) addChanged(old.hashRect);
+            return 0;
+        }
+
+        SeedFill seedFill = createFill(data, raster, startX, startY);
+        seedFill.setTrace(frame, index);
+        Entry entry = entries.get(index);
+        if (entry != null && sameFill(entry.data, data) && entry.width == raster.getWidth() && entry.height == raster.getHeight()
+                && (!entry.hashRect.intersects(changed) || hash(raster, entry.hashRect, null, 0) == entry.hash)) {
+            seedFill.paintSpans(entry.spans);
+            return pixelCount(entry.spans);
+        }
+        if (entry != null) addChanged(entry.hashRect);
+
+        int targetColor = raster.getPixel(startX, startY);
+
+        SpanList spans = new SpanList();
+        seedFill.setRecorder(spans);
+        seedFill.fill();
+        spans.trim();
+
+        int minX = startX, minY = startY, maxX = startX, maxY = startY;
+        for (int i = 0; i < spans.size(); i++) {
+            minX = Math.min(minX, spans.getX1(i));
+            maxX = Math.max(maxX, spans.getX2(i));
+            minY = Math.min(minY, spans.getY(i));
+            maxY = Math.max(maxY, spans.getY(i));
+        }
+        Rectangle hashRect = new Rectangle(minX - 1, minY - 1, maxX - minX + 3, maxY - minY + 3)
+                .intersection(new Rectangle(0, 0, raster.getWidth(), raster.getHeight()));
+
+        BitSet painted = new BitSet();
+        if (!hashRect.isEmpty()) {
+            for (int i = 0; i < spans.size(); i++) {
+                int row = (spans.getY(i) - hashRect.y) * hashRect.width - hashRect.x;
+                painted.set(row + spans.getX1(i), row + spans.getX2(i) + 1);
+            }
+        }
+
+        entry = new Entry();
+        entry.data = new SeedFillData(new Point(startX, startY), data.getMode(), data.getFillColor(), data.getBorderColor(), data.isUsePattern());
+        entry.width = raster.getWidth();
+        entry.height = raster.getHeight();
+        entry.hashRect = hashRect;
+        entry.hash = hash(raster, hashRect, painted, targetColor);
+        entry.spans = spans;
+        entries.set(index, entry);
+        addChanged(hashRect);
+        return pixelCount(spans);
+    }
+
+    // Zahodí masky seed fill, které už ve scéně nejsou
+    public void retain(int count) {
+        while (entries.size() > count) entries.removeLast();
+    }
+
+    private void addChanged(Rectangle rect) {
+        if (rect.isEmpty()) return;
+        changed = changed.isEmpty() ? new Rectangle(rect) : changed.union(rect);
+    }
+
+    private static long pixelCount(SpanList spans) {
+        long count = 0;
+        for (int i = 0; i < spans.size(); i++) {
+            count += spans.getX2(i) - spans.getX1(i) + 1;
+        }
+        return count;
+    }
+
+    private static SeedFill createFill(SeedFillData data, Raster raster, int startX, int startY) {
+        if (data.getMode() == FillMode.SEED_BORDER) {
+            return new SeedFill(raster, data.getFillColor(), data.getBorderColor(), startX, startY, data.isUsePattern());
+        }
+        return new SeedFill(raster, data.getFillColor(), startX, startY, data.isUsePattern());
+    }
+
+    private static boolean sameFill(SeedFillData a, SeedFillData b) {
+        return a.getMode() == b.getMode()
+                && a.getStartPoint().getX() == b.getStartPoint().getX()
+                && a.getStartPoint().getY() == b.getStartPoint().getY()
+                && a.getFillColor() == b.getFillColor()
+                && a.getBorderColor() == b.getBorderColor()
+                && a.isUsePattern() == b.isUsePattern();
+    }
+
+    // Pixely z painted (indexované v rámci rect po řádcích) se počítají jako targetColor
+    private static long hash(Raster raster, Rectangle rect, BitSet painted, int targetColor) {
+        long hash = 0x9E3779B97F4A7C15L;
+        for (int y = rect.y; y < rect.y + rect.height; y++) {
+            int row = (y - rect.y) * rect.width - rect.x;
+            for (int x = rect.x; x < rect.x + rect.width; x++) {
+                int pixel = (painted != null && painted.get(row + x)) ? targetColor : raster.getPixel(x, y);
+                hash = (hash ^ pixel) * 0x100000001B3L;
+                hash ^= hash >>> 29;
+            }
+        }
+        return hash;
+    }
+}
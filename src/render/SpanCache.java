@@ -0,0 +1,163 @@
+package render;
+
+import fill.EdgeTable;
+import fill.SpanList;
+import jfr.ScanLineFillEvent;
+import model.GeometryStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+
+// Cache úseků ScanLine výplní mezi snímky
+// Postup:
+// 1 - Klíčem jsou vrcholy polygonu a výška rastru (úseky se počítají jen pro řádky 0 .. výška - 1); barva ani vzor
+//     úseky neovlivňují, takže jejich změna cache nezneplatní
+// 2 - Scéna se každý snímek skládá znovu, polygon proto nemá stálou identitu; záznam se hledá podle hashe vrcholů
+//     a shoda se ověří porovnáním vrcholů
+// 3 - Při změně libovolného vrcholu se polygon v cache nenajde a úseky se spočítají znovu přes EdgeTable
+// 4 - Záznamy, které se MAX_IDLE_FRAMES snímků nepoužily, se zahodí
+// Cache není vláknově bezpečná, používá ji jen vlákno, které volá SceneRenderer.render.
+
+public class SpanCache {
+    private static final int MAX_IDLE_FRAMES = 30;
+
+    private static final class Entry {
+        final int[] xs;
+        final int[] ys;
+        final int height;
+        final int hash;
+        SpanList spans;
+        int lastUsed;
+
+        Entry(int[] xs, int[] ys, int height, int hash) {
+            this.xs = xs;
+            this.ys = ys;
+            this.height = height;
+            this.hash = hash;
+        }
+    }
+
+    private final HashMap<Integer, List<Entry>> entries = new HashMap<>();
+    private int frame;
+    private int size;
+
+    public void beginFrame() {
+        frame++;
+    }
+
+    // Vrátí úseky z cache, nebo null; při null je potřeba úseky spočítat přes compute a uložit přes put
+    public SpanList get(GeometryStore geometry, int polygon, int height) {
+        Entry entry = find(geometry, polygon, height, hash(geometry, polygon, height));
+        if (entry == null) return null;
+
+        entry.lastUsed = frame;
+        return entry.spans;
+    }
+
+    public void put(GeometryStore geometry, int polygon, int height, SpanList spans) {
+        int hash = hash(geometry, polygon, height);
+        if (find(geometry, polygon, height, hash) != null) return;
+
+        int start = geometry.getPolygonStart(polygon);
+        int end = start + geometry.getPolygonSize(polygon);
+        Entry entry = new Entry(Arrays.copyOfRange(geometry.getVertexXs(), start, end),
+                Arrays.copyOfRange(geometry.getVertexYs(), start, end), height, hash);
+        entry.spans = spans;
+        entry.lastUsed = frame;
+
+        entries.computeIfAbsent(hash, h -> new ArrayList<>(1)).add(entry);
+        size++;
+    }
+
+    // frame se jen zapíše do ScanLineFillEvent
+    public static SpanList compute(GeometryStore geometry, int polygon, int height, long frame) {
+        ScanLineFillEvent event = new ScanLineFillEvent();
+        event.begin();
+
+        EdgeTable edgeTable = new EdgeTable();
+        edgeTable.build(geometry.getVertexXs(), geometry.getVertexYs(), geometry.getPolygonStart(polygon), geometry.getPolygonSize(polygon));
+
+        SpanList spans = new SpanList();
+        edgeTable.scan(0, height, spans);
+        spans.trim();
+
+        event.end();
+        if (event.shouldCommit()) {
+            long pixels = 0;
+            for (int i = 0; i < spans.size(); i++) {
+                pixels += spans.getX2(i) - spans.getX1(i) + 1;
+            }
+            int start = geometry.getPolygonStart(polygon);
+            int end = start + geometry.getPolygonSize(polygon);
+            int[] xs = geometry.getVertexXs();
+            int[] ys = geometry.getVertexYs();
+            event.minX = event.minY = Integer.MAX_VALUE;
+            event.maxX = event.maxY = Integer.MIN_VALUE;
+            for (int v = start; v < end; v++) {
+                event.minX = Math.min(event.minX, xs[v]);
+                event.minY = Math.min(event.minY, ys[v]);
+                event.maxX = Math.max(event.maxX, xs[v]);
+                event.maxY = Math.max(event.maxY, ys[v]);
+            }
+            event.frame = frame;
+            event.index = polygon;
+            event.vertices = geometry.getPolygonSize(polygon);
+            event.spans = spans.size();
+            event.pixels = pixels;
+            event.pattern = geometry.isPolygonPattern(polygon);
+            event.spansOnly = true;
+            event.commit();
+        }
+        return spans;
+    }
+
+    public void evictIdle() {
+        Iterator<List<Entry>> buckets = entries.values().iterator();
+        while (buckets.hasNext()) {
+            List<Entry> bucket = buckets.next();
+            int before = bucket.size();
+            bucket.removeIf(e -> frame - e.lastUsed > MAX_IDLE_FRAMES);
+            size -= before - bucket.size();
+            if (bucket.isEmpty()) buckets.remove();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private Entry find(GeometryStore geometry, int polygon, int height, int hash) {
+        List<Entry> bucket = entries.get(hash);
+        if (bucket == null) return null;
+
+        int start = geometry.getPolygonStart(polygon);
+        int count = geometry.getPolygonSize(polygon);
+        int[] xs = geometry.getVertexXs();
+        int[] ys = geometry.getVertexYs();
+
+        for (Entry entry : bucket) {
+            if (entry.height == height && entry.xs.length == count
+                    && Arrays.equals(entry.xs, 0, count, xs, start, start + count)
+                    && Arrays.equals(entry.ys, 0, count, ys, start, start + count)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private static int hash(GeometryStore geometry, int polygon, int height) {
+        int start = geometry.getPolygonStart(polygon);
+        int end = start + geometry.getPolygonSize(polygon);
+        int[] xs = geometry.getVertexXs();
+        int[] ys = geometry.getVertexYs();
+
+        int hash = height;
+        for (int v = start; v < end; v++) {
+            hash = 31 * (31 * hash + xs[v]) + ys[v];
+        }
+        return hash;
+    }
+}
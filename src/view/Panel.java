@@ -1,35 +1,65 @@
 package view;
 
-import rasterize.RasterBufferedImage;
+import render.DoubleBuffer;
+import render.FrameProfiler;
+import render.PreviewLayer;
 
 import javax.swing.*;
 import java.awt.*;
-import java.awt.image.BufferedImage;
 
 public class Panel extends JPanel {
 
-    private final RasterBufferedImage raster;
+    private final DoubleBuffer buffer;
+    private final PreviewLayer preview;
     private String currentMode = "LINES";
+    private String layerInfo = "";
+    private FrameProfiler profiler;
 
     public Panel(int width, int height) {
         setPreferredSize(new Dimension(width, height));
-        raster = new RasterBufferedImage(width, height);
+        buffer = new DoubleBuffer(width, height);
+        preview = new PreviewLayer(width, height);
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        g.drawImage(raster.getImage(), 0, 0, null);
+        synchronized (buffer) {
+            g.drawImage(buffer.getFront().getImage(), 0, 0, null);
+        }
+        g.drawImage(preview.getImage(), 0, 0, null);
 
         Graphics2D g2d = (Graphics2D) g;
 
+        Rectangle hud = getHudBounds();
         g2d.setColor(new Color(0, 0, 0, 150));
-        g2d.fillRect(5, getHeight() - 45, 175, 40);
+        g2d.fillRect(hud.x, hud.y, hud.width, hud.height);
 
         g2d.setColor(Color.WHITE);
         g2d.setFont(new Font("Arial", Font.PLAIN, 14));
-        g2d.drawString("Mode: " + currentMode, 10, getHeight() - 10);
+        g2d.drawString("Mode: " + currentMode + "   " + layerInfo, 10, getHeight() - 10);
         g2d.drawString("Press \"H\" to open settings", 10, getHeight() - 30);
+
+        if (profiler != null && profiler.size() > 0) {
+            g2d.drawString(String.format("Frame p50 %.2f / p99 %.2f ms (P: CSV)", profiler.percentileMillis(50), profiler.percentileMillis(99)),
+                    10, getHeight() - 50);
+        }
+    }
+
+    private Rectangle getHudBounds() {
+        if (profiler == null) return new Rectangle(5, getHeight() - 45, 300, 40);
+        return new Rectangle(5, getHeight() - 65, 300, 60);
+    }
+
+    // Po vykreslení snímku překreslí změněnou oblast, a když se měří, i časy snímků
+    public void repaintFrame(Rectangle painted) {
+        repaint(painted);
+        if (profiler != null) repaint(getHudBounds());
+    }
+
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+        repaint();
     }
 
     public void setCurrentMode(String mode) {
@@ -37,7 +67,17 @@ public class Panel extends JPanel {
         repaint();
     }
 
-    public RasterBufferedImage getRaster() {
-        return raster;
+    // Aktivní vrstva dokumentu, zobrazuje se vedle režimu
+    public void setLayerInfo(String layerInfo) {
+        this.layerInfo = layerInfo;
+        repaint(getHudBounds());
+    }
+
+    public DoubleBuffer getBuffer() {
+        return buffer;
+    }
+
+    public PreviewLayer getPreview() {
+        return preview;
     }
-}
\ No newline at end of file
+}